@@ -0,0 +1,68 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.id;
+
+import com.github.yingzhuo.carnival.id.impl.SnowflakeLongIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.UUID36IdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量获得ID: 逐个调用{@code nextLongId()}与{@code fillIds()}对比
+ * <p>
+ * Snowflake每毫秒最多4096个ID，批量大小超过后两者都受限于时钟。
+ *
+ * @author 应卓
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdBatchBenchmark {
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private final SnowflakeLongIdGenerator snowflake = new SnowflakeLongIdGenerator(1L, 1L);
+    private final UUID36IdGenerator uuid = new UUID36IdGenerator();
+
+    private long[] longIds;
+    private String[] stringIds;
+
+    @Setup
+    public void setup() {
+        longIds = new long[batchSize];
+        stringIds = new String[batchSize];
+    }
+
+    @Benchmark
+    public long[] snowflakeLoop() {
+        for (int i = 0; i < longIds.length; i++) {
+            longIds[i] = snowflake.nextLongId();
+        }
+        return longIds;
+    }
+
+    @Benchmark
+    public long[] snowflakeFill() {
+        snowflake.fillIds(longIds);
+        return longIds;
+    }
+
+    @Benchmark
+    public String[] uuidFill() {
+        uuid.fillIds(stringIds);
+        return stringIds;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.id;
+
+import com.github.yingzhuo.carnival.id.impl.SnowflakeLongIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.StripedSnowflakeLongIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake多线程竞争: 原{@code synchronized}实现、CAS实现与分段实现对比，线程数通过{@code -t}指定
+ *
+ * @author 应卓
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private final LegacySnowflake legacy = new LegacySnowflake(1L, 1L);
+    private final SnowflakeLongIdGenerator generator = new SnowflakeLongIdGenerator(1L, 1L);
+    private final StripedSnowflakeLongIdGenerator striped = new StripedSnowflakeLongIdGenerator(0L, 1L, 16, StripedSnowflakeLongIdGenerator.StripeMode.WORKER_ID);
+
+    @Benchmark
+    public Long legacyNextId() {
+        return legacy.nextId();
+    }
+
+    @Benchmark
+    public Long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public long nextLongId() {
+        return generator.nextLongId();
+    }
+
+    @Benchmark
+    public long stripedNextLongId() {
+        return striped.nextLongId();
+    }
+
+    // 原实现
+    private static final class LegacySnowflake {
+        private static final long TWEPOCH = 1420041600000L;
+        private static final long SEQUENCE_MASK = 4095L;
+
+        private final long workerId;
+        private final long dataCenterId;
+        private long sequence = 0L;
+        private long lastTimestamp = -1L;
+
+        private LegacySnowflake(long workerId, long dataCenterId) {
+            this.workerId = workerId;
+            this.dataCenterId = dataCenterId;
+        }
+
+        private synchronized Long nextId() {
+            long timestamp = System.currentTimeMillis();
+            if (timestamp < lastTimestamp) {
+                throw new RuntimeException("Clock moved backwards.");
+            }
+            if (lastTimestamp == timestamp) {
+                sequence = (sequence + 1) & SEQUENCE_MASK;
+                if (sequence == 0) {
+                    while (timestamp <= lastTimestamp) {
+                        timestamp = System.currentTimeMillis();
+                    }
+                }
+            } else {
+                sequence = 0L;
+            }
+            lastTimestamp = timestamp;
+            return ((timestamp - TWEPOCH) << 22) | (dataCenterId << 17) | (workerId << 12) | sequence;
+        }
+    }
+
+}
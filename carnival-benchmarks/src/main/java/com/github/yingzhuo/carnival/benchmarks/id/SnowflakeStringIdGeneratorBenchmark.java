@@ -0,0 +1,57 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.id;
+
+import com.github.yingzhuo.carnival.id.impl.SnowflakeLongIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.SnowflakeStringIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake字符串编码: 原十进制实现与各编码对比，不含生成ID本身
+ *
+ * @author 应卓
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeStringIdGeneratorBenchmark {
+
+    @Param({"DECIMAL", "BASE32", "BASE62"})
+    private SnowflakeStringIdGenerator.Encoding encoding;
+
+    private SnowflakeStringIdGenerator generator;
+    private long id;
+
+    @Setup
+    public void setup() {
+        generator = new SnowflakeStringIdGenerator(new SnowflakeLongIdGenerator(1L, 1L), encoding, 32, '0');
+        id = new SnowflakeLongIdGenerator(1L, 1L).nextLongId();
+    }
+
+    @Benchmark
+    public String legacyDecimal() {
+        String s = String.valueOf(++id);
+        while (s.length() < 32) {
+            s = '0' + s;
+        }
+        return s;
+    }
+
+    @Benchmark
+    public String encode() {
+        return generator.encode(++id);
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.id;
+
+import com.github.yingzhuo.carnival.id.impl.FastUUIDIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.TimeOrderedUUIDIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.UUID32IdGenerator;
+import com.github.yingzhuo.carnival.id.impl.UUID36IdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UUID: 原实现、直接编码、{@link FastUUIDIdGenerator}与{@link TimeOrderedUUIDIdGenerator}对比，线程数通过{@code -t}指定
+ *
+ * @author 应卓
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UUIDIdGeneratorBenchmark {
+
+    private final UUID32IdGenerator uuid32 = new UUID32IdGenerator();
+    private final UUID36IdGenerator uuid36 = new UUID36IdGenerator();
+    private final FastUUIDIdGenerator fast32 = new FastUUIDIdGenerator(false);
+    private final FastUUIDIdGenerator fast36 = new FastUUIDIdGenerator(true);
+    private final TimeOrderedUUIDIdGenerator v7 = new TimeOrderedUUIDIdGenerator(true);
+
+    @Benchmark
+    public String legacyUuid32() {
+        return UUID.randomUUID().toString().replaceAll("-", "");
+    }
+
+    @Benchmark
+    public String legacyUuid36() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String uuid32() {
+        return uuid32.nextId();
+    }
+
+    @Benchmark
+    public String uuid36() {
+        return uuid36.nextId();
+    }
+
+    @Benchmark
+    public String fastUuid32() {
+        return fast32.nextId();
+    }
+
+    @Benchmark
+    public String fastUuid36() {
+        return fast36.nextId();
+    }
+
+    @Benchmark
+    public String uuidV7() {
+        return v7.nextId();
+    }
+
+}
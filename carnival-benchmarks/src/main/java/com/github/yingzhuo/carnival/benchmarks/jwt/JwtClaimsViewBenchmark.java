@@ -0,0 +1,98 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import com.github.yingzhuo.carnival.jwt.claims.ClaimsViewDecoder;
+import com.github.yingzhuo.carnival.jwt.factory.DefaultJwtTokenFactory;
+import com.github.yingzhuo.carnival.jwt.factory.JwtTokenInfo;
+import com.github.yingzhuo.carnival.jwt.util.InternalUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证载荷较大的令牌: 完整解析与{@link ClaimsViewDecoder}流式解析对比，建议加上{@code -prof gc}
+ *
+ * @author 应卓
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtClaimsViewBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    @Param({"10", "200"})
+    private int roles;
+
+    private JWTVerifier verifier;
+    private ClaimsViewDecoder decoder;
+    private String token;
+
+    @Setup
+    public void setup() {
+        final DefaultJwtTokenFactory factory = new DefaultJwtTokenFactory();
+        factory.setSecret(SECRET);
+        factory.setSignatureAlgorithm(SignatureAlgorithm.HMAC256);
+
+        final String[] roleNames = new String[roles];
+        for (int i = 0; i < roles; i++) {
+            roleNames[i] = "ROLE_" + i;
+        }
+
+        final JwtTokenInfo.Builder builder = JwtTokenInfo.builder()
+                .subject("1")
+                .issuer("carnival")
+                .expiresAt(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1L)))
+                .putPrivateClaim("username", "someone@example.com")
+                .putPrivateClaim("roles", roleNames);
+        for (int i = 0; i < roles / 4; i++) {
+            builder.putPrivateClaim("profile_" + i, "value of profile field " + i);
+        }
+        token = factory.create(builder.build());
+
+        verifier = JWT.require(InternalUtils.toAlgorithm(SignatureAlgorithm.HMAC256, SECRET)).build();
+        decoder = new ClaimsViewDecoder("username");
+
+        // 两种方式结果应当一致
+        final DecodedJWT full = verifier.verify(token);
+        final DecodedJWT view = verifier.verify(decoder.decode(token));
+        if (!Objects.equals(full.getSubject(), view.getSubject())
+                || !Objects.equals(full.getExpiresAt(), view.getExpiresAt())
+                || !Objects.equals(full.getClaim("username").asString(), view.getClaim("username").asString())) {
+            throw new IllegalStateException();
+        }
+    }
+
+    @Benchmark
+    public void full(Blackhole bh) {
+        final DecodedJWT jwt = verifier.verify(token);
+        bh.consume(jwt.getSubject());
+        bh.consume(jwt.getClaim("username").asString());
+    }
+
+    @Benchmark
+    public void claimsView(Blackhole bh) {
+        final DecodedJWT jwt = verifier.verify(decoder.decode(token));
+        bh.consume(jwt.getSubject());
+        bh.consume(jwt.getClaim("username").asString());
+    }
+
+}
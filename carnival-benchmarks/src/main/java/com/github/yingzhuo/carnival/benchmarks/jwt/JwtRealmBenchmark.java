@@ -0,0 +1,137 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import com.github.yingzhuo.carnival.jwt.factory.DefaultJwtTokenFactory;
+import com.github.yingzhuo.carnival.jwt.factory.JwtTokenInfo;
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.key.SimpleJwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.metrics.MicrometerJwtMetrics;
+import com.github.yingzhuo.carnival.jwt.props.JwtProps;
+import com.github.yingzhuo.carnival.jwt.realm.AbstractJwtUserDetailsRealm;
+import com.github.yingzhuo.carnival.jwt.realm.VerifiedTokenCache;
+import com.github.yingzhuo.carnival.jwt.util.InternalUtils;
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT验证吞吐量: 每次重建Algorithm与JWTVerifier (原实现)、{@link AbstractJwtUserDetailsRealm}、启用{@link MicrometerJwtMetrics}及启用{@link VerifiedTokenCache}时对比
+ *
+ * @author 应卓
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtRealmBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    @Param({"HMAC256", "HMAC512", "RSA256", "ES256"})
+    private SignatureAlgorithm algorithm;
+
+    private JwtKeyProvider keyProvider;
+    private AbstractJwtUserDetailsRealm realm;
+    private AbstractJwtUserDetailsRealm metricsRealm;
+    private AbstractJwtUserDetailsRealm verifiedCacheRealm;
+    private StringToken token;
+
+    @Setup
+    public void setup() throws Exception {
+        keyProvider = createKeyProvider(algorithm);
+
+        final JwtProps props = new JwtProps();
+        props.setSecret(SECRET);
+        props.setSignatureAlgorithm(algorithm);
+
+        final DefaultJwtTokenFactory factory = new DefaultJwtTokenFactory();
+        factory.setSecret(SECRET);
+        factory.setSignatureAlgorithm(algorithm);
+        factory.setKeyProvider(keyProvider);
+
+        token = StringToken.of(factory.create(JwtTokenInfo.builder()
+                .subject("1")
+                .expiresAt(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1L)))
+                .putPrivateClaim("username", "someone@example.com")
+                .build()));
+
+        realm = createRealm(props, keyProvider);
+
+        metricsRealm = createRealm(props, keyProvider);
+        metricsRealm.setMetrics(new MicrometerJwtMetrics(new SimpleMeterRegistry()));
+
+        props.getVerifiedCache().setEnabled(true);
+        verifiedCacheRealm = createRealm(props, keyProvider);
+    }
+
+    @Benchmark
+    public DecodedJWT rebuildPerCall() {
+        return JWT.require(InternalUtils.toAlgorithm(algorithm, SECRET, keyProvider)).build().verify(token.getValue());
+    }
+
+    @Benchmark
+    public Optional<UserDetails> cachedVerifier() {
+        return realm.loadUserDetails(token);
+    }
+
+    @Benchmark
+    public Optional<UserDetails> cachedVerifierWithMetrics() {
+        return metricsRealm.loadUserDetails(token);
+    }
+
+    @Benchmark
+    public Optional<UserDetails> verifiedTokenCache() {
+        return verifiedCacheRealm.loadUserDetails(token);
+    }
+
+    private static AbstractJwtUserDetailsRealm createRealm(JwtProps props, JwtKeyProvider keyProvider) {
+        final AbstractJwtUserDetailsRealm realm = new AbstractJwtUserDetailsRealm() {
+            @Override
+            protected UserDetails getUserDetails(DecodedJWT jwt) {
+                return UserDetails.builder().id(jwt.getSubject()).build();
+            }
+        };
+        realm.setJwtProps(props);
+        realm.setKeyProvider(keyProvider);
+        realm.afterPropertiesSet();
+        return realm;
+    }
+
+    private static JwtKeyProvider createKeyProvider(SignatureAlgorithm algorithm) throws Exception {
+        final KeyPairGenerator generator;
+        switch (algorithm) {
+            case RSA256:
+                generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                break;
+            case ES256:
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                break;
+            default:
+                return null;
+        }
+        return SimpleJwtKeyProvider.builder().keyPair("benchmark", generator.generateKeyPair()).build();
+    }
+
+}
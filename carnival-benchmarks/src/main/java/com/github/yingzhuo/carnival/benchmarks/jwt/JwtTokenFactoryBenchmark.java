@@ -0,0 +1,146 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import com.github.yingzhuo.carnival.jwt.factory.DefaultJwtTokenFactory;
+import com.github.yingzhuo.carnival.jwt.factory.JwtTokenInfo;
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.key.SimpleJwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.util.InternalUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.security.KeyPairGenerator;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量签发令牌: 原{@code create()}实现逐个签发、{@link DefaultJwtTokenFactory#create}逐个签发与{@link DefaultJwtTokenFactory#createAll}对比
+ *
+ * @author 应卓
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenFactoryBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    @Param({"HMAC256", "RSA256"})
+    private SignatureAlgorithm algorithm;
+
+    @Param({"256"})
+    private int batchSize;
+
+    private JwtKeyProvider keyProvider;
+    private DefaultJwtTokenFactory factory;
+    private List<JwtTokenInfo> infos;
+
+    @Setup
+    public void setup() throws Exception {
+        if (algorithm == SignatureAlgorithm.RSA256) {
+            final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keyProvider = SimpleJwtKeyProvider.builder().keyPair("benchmark", generator.generateKeyPair()).build();
+        }
+
+        factory = new DefaultJwtTokenFactory();
+        factory.setSecret(SECRET);
+        factory.setSignatureAlgorithm(algorithm);
+        factory.setKeyProvider(keyProvider);
+
+        final Date expiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1L));
+        infos = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            infos.add(JwtTokenInfo.builder()
+                    .issuer("carnival")
+                    .subject(String.valueOf(i))
+                    .audience("benchmark")
+                    .expiresAt(expiresAt)
+                    .issuedAtNow()
+                    .putPrivateClaim("username", "user" + i + "@example.com")
+                    .putPrivateClaim("age", i)
+                    .putPrivateClaim("admin", i % 2 == 0)
+                    .putPrivateClaim("roles", new String[]{"user", "reader"})
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void legacyCreate(Blackhole bh) {
+        for (JwtTokenInfo info : infos) {
+            bh.consume(legacyCreate(info));
+        }
+    }
+
+    @Benchmark
+    public void create(Blackhole bh) {
+        for (JwtTokenInfo info : infos) {
+            bh.consume(factory.create(info));
+        }
+    }
+
+    @Benchmark
+    public List<String> createAll() {
+        return factory.createAll(infos);
+    }
+
+    // 原实现
+    private String legacyCreate(JwtTokenInfo info) {
+        JWTCreator.Builder builder = JWT.create();
+
+        Optional.ofNullable(info.getKeyId()).ifPresent(builder::withKeyId);
+        Optional.ofNullable(info.getIssuer()).ifPresent(builder::withIssuer);
+        Optional.ofNullable(info.getSubject()).ifPresent(builder::withSubject);
+        Optional.ofNullable(info.getExpiresAt()).ifPresent(builder::withExpiresAt);
+        Optional.ofNullable(info.getNotBefore()).ifPresent(builder::withNotBefore);
+        Optional.ofNullable(info.getIssuedAt()).ifPresent(builder::withIssuedAt);
+        Optional.ofNullable(info.getJwtId()).ifPresent(builder::withJWTId);
+        Optional.ofNullable(info.getAudience()).ifPresent(it -> {
+            if (!it.isEmpty()) {
+                builder.withAudience(info.getAudience().toArray(new String[info.getAudience().size()]));
+            }
+        });
+
+        Optional.ofNullable(info.getPrivateClaims()).ifPresent(map -> {
+            for (String name : map.keySet()) {
+                Object value = map.get(name);
+                if (value instanceof String) {
+                    builder.withClaim(name, (String) value);
+                } else if (value instanceof Integer) {
+                    builder.withClaim(name, (Integer) value);
+                } else if (value instanceof Boolean) {
+                    builder.withClaim(name, (Boolean) value);
+                } else if (value instanceof Date) {
+                    builder.withClaim(name, (Date) value);
+                } else if (value instanceof Long) {
+                    builder.withClaim(name, (Long) value);
+                } else if (value instanceof Double) {
+                    builder.withClaim(name, (Double) value);
+                } else if (value instanceof String[]) {
+                    builder.withArrayClaim(name, (String[]) value);
+                } else if (value instanceof Integer[]) {
+                    builder.withArrayClaim(name, (Integer[]) value);
+                } else if (value instanceof Long[]) {
+                    builder.withArrayClaim(name, (Long[]) value);
+                }
+            }
+        });
+
+        return builder.sign(InternalUtils.toAlgorithm(algorithm, SECRET, keyProvider));
+    }
+
+}
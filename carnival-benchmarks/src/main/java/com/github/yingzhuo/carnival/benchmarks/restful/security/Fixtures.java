@@ -0,0 +1,159 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.restful.security;
+
+import com.github.yingzhuo.carnival.restful.security.RequiresAuthentication;
+import com.github.yingzhuo.carnival.restful.security.RequiresRoles;
+import com.github.yingzhuo.carnival.restful.security.annotation.IgnoreToken;
+import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.realm.UserDetailsRealm;
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import com.github.yingzhuo.carnival.restful.security.token.UsernamePasswordToken;
+import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
+import com.github.yingzhuo.carnival.spring.SpringUtilsInitBean;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.method.HandlerMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 性能测试共用的夹具
+ *
+ * @author 应卓
+ */
+final class Fixtures {
+
+    static final String JWT = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9" +
+            ".eyJzdWIiOiIxMjM0NTY3ODkwIiwibmFtZSI6IkpvaG4gRG9lIiwiaWF0IjoxNTE2MjM5MDIyfQ" +
+            ".SflKxwRJSMeKKF2QT4fwpMeJf36POk6yJV_adQssw5c";
+
+    static final String REVOKED_JWT = JWT + "-revoked";
+
+    static final String USERNAME = "someone@example.com";
+    static final String PASSWORD = "p4ssw0rd";
+
+    static final UserDetails USER = UserDetails.builder()
+            .id(1L)
+            .username(USERNAME)
+            .roles("user", "admin")
+            .permissions("read", "write")
+            .build();
+
+    private static GenericApplicationContext context;
+
+    private Fixtures() {
+    }
+
+    /**
+     * SecurityPlan通过SpringUtils获取AuthenticationComponent，需要一个最小的容器
+     */
+    static synchronized void initSpring() {
+        if (context == null) {
+            context = new GenericApplicationContext();
+            context.registerBean(SpringUtilsInitBean.class, () -> SpringUtilsInitBean.INSTANCE);
+            context.registerBean(RequiresAuthentication.AuthComponent.class);
+            context.registerBean(RequiresRoles.AuthComponent.class);
+            context.refresh();
+        }
+    }
+
+    static List<HandlerMethod> handlerMethods() {
+        final Endpoints endpoints = new Endpoints();
+        try {
+            return Arrays.asList(
+                    new HandlerMethod(endpoints, "open"),
+                    new HandlerMethod(endpoints, "secured"),
+                    new HandlerMethod(endpoints, "admin"));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static HandlerMethod handlerMethod(String name) {
+        for (HandlerMethod hm : handlerMethods()) {
+            if (hm.getMethod().getName().equals(name)) {
+                return hm;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    static MockHttpServletRequest request(Scenario scenario) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/secured");
+        switch (scenario) {
+            case BEARER:
+                request.addHeader("Authorization", "Bearer " + JWT);
+                break;
+            case BASIC:
+                request.addHeader("Authorization", "Basic " + Base64.getEncoder().encodeToString((USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8)));
+                break;
+            case BLACKLISTED:
+                request.addHeader("Authorization", "Bearer " + REVOKED_JWT);
+                break;
+            default:
+                break;
+        }
+        return request;
+    }
+
+    static UserDetailsRealm realm() {
+        return Fixtures::loadUserDetails;
+    }
+
+    static TokenBlackList blackList() {
+        return new TokenBlackList() {
+            @Override
+            public void save(Token token) {
+            }
+
+            @Override
+            public boolean isBlacklisted(Token token) {
+                return token instanceof StringToken && REVOKED_JWT.equals(((StringToken) token).getValue());
+            }
+        };
+    }
+
+    private static Optional<UserDetails> loadUserDetails(Token token) {
+        if (token instanceof StringToken && JWT.equals(((StringToken) token).getValue())) {
+            return Optional.of(USER);
+        }
+
+        if (token instanceof UsernamePasswordToken) {
+            final UsernamePasswordToken upt = (UsernamePasswordToken) token;
+            if (USERNAME.equals(upt.getUsername()) && PASSWORD.equals(upt.getPassword())) {
+                return Optional.of(USER);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    static class Endpoints {
+
+        @IgnoreToken
+        public void open() {
+        }
+
+        @RequiresAuthentication
+        public void secured() {
+        }
+
+        @RequiresRoles("admin")
+        public void admin() {
+        }
+    }
+
+}
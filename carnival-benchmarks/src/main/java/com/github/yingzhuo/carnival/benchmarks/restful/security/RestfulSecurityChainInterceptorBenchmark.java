@@ -0,0 +1,114 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.restful.security;
+
+import com.github.yingzhuo.carnival.restful.security.cache.CaffeineCacheManager;
+import com.github.yingzhuo.carnival.restful.security.cache.NopCacheManager;
+import com.github.yingzhuo.carnival.restful.security.chain.ChainNode;
+import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityChainInterceptor;
+import com.github.yingzhuo.carnival.restful.security.exception.RestfulSecurityException;
+import com.github.yingzhuo.carnival.restful.security.parser.BearerTokenParser;
+import com.github.yingzhuo.carnival.restful.security.parser.HttpBasicTokenParser;
+import com.github.yingzhuo.carnival.restful.security.voter.FirstSuccessUserDetailsVoter;
+import com.github.yingzhuo.carnival.restful.security.voter.LastSuccessUserDetailsVoter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RestfulSecurityChainInterceptor}一次完整请求 (preHandle + afterCompletion)
+ * <p>
+ * 节点交替使用Bearer与Basic解析器。分配率请加`-prof gc`运行。
+ *
+ * @author 应卓
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestfulSecurityChainInterceptorBenchmark {
+
+    @Param({"NO_TOKEN", "BEARER", "BASIC", "BLACKLISTED"})
+    private Scenario scenario;
+
+    @Param({"2", "4", "8"})
+    private int nodes;
+
+    @Param({"first", "last"})
+    private String voter;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    @Param({"0", "4"})
+    private int parallelism;
+
+    private RestfulSecurityChainInterceptor interceptor;
+    private ExecutorService executorService;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private HandlerMethod handler;
+
+    @Setup
+    public void setup() {
+        Fixtures.initSpring();
+
+        final List<ChainNode> chainNodes = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            chainNodes.add(ChainNode.of(i % 2 == 0 ? new BearerTokenParser() : new HttpBasicTokenParser(), Fixtures.realm()));
+        }
+
+        interceptor = new RestfulSecurityChainInterceptor();
+        interceptor.setChainNodes(chainNodes);
+        interceptor.setUserDetailsVoter("first".equals(voter) ? new FirstSuccessUserDetailsVoter() : new LastSuccessUserDetailsVoter());
+        interceptor.setTokenBlackList(Fixtures.blackList());
+        interceptor.setCacheManager(cache ? new CaffeineCacheManager(10000L, Duration.ofMinutes(10L)) : new NopCacheManager());
+
+        if (parallelism > 0) {
+            executorService = Executors.newFixedThreadPool(parallelism);
+            interceptor.setExecutorService(executorService);
+        }
+
+        interceptor.compile(Fixtures.handlerMethods());
+
+        request = Fixtures.request(scenario);
+        response = new MockHttpServletResponse();
+        handler = Fixtures.handlerMethod("secured");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public boolean request() {
+        try {
+            return interceptor.preHandle(request, response, handler);
+        } catch (RestfulSecurityException e) {
+            return false;
+        } finally {
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+    }
+
+}
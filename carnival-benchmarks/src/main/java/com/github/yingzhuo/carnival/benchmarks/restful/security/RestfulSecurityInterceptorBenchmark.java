@@ -0,0 +1,82 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.restful.security;
+
+import com.github.yingzhuo.carnival.restful.security.cache.CaffeineCacheManager;
+import com.github.yingzhuo.carnival.restful.security.cache.NopCacheManager;
+import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityInterceptor;
+import com.github.yingzhuo.carnival.restful.security.exception.RestfulSecurityException;
+import com.github.yingzhuo.carnival.restful.security.parser.BearerTokenParser;
+import com.github.yingzhuo.carnival.restful.security.parser.HttpBasicTokenParser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RestfulSecurityInterceptor}一次完整请求 (preHandle + afterCompletion)
+ * <p>
+ * 分配率请加`-prof gc`运行。
+ *
+ * @author 应卓
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestfulSecurityInterceptorBenchmark {
+
+    @Param({"NO_TOKEN", "BEARER", "BASIC", "BLACKLISTED"})
+    private Scenario scenario;
+
+    @Param({"secured", "admin"})
+    private String endpoint;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private RestfulSecurityInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private HandlerMethod handler;
+
+    @Setup
+    public void setup() {
+        Fixtures.initSpring();
+
+        interceptor = new RestfulSecurityInterceptor();
+        interceptor.setTokenParser(scenario == Scenario.BASIC ? new HttpBasicTokenParser() : new BearerTokenParser());
+        interceptor.setUserDetailsRealm(Fixtures.realm());
+        interceptor.setTokenBlackList(Fixtures.blackList());
+        interceptor.setCacheManager(cache ? new CaffeineCacheManager(10000L, Duration.ofMinutes(10L)) : new NopCacheManager());
+        interceptor.compile(Fixtures.handlerMethods());
+
+        request = Fixtures.request(scenario);
+        response = new MockHttpServletResponse();
+        handler = Fixtures.handlerMethod(endpoint);
+    }
+
+    @Benchmark
+    public boolean request() {
+        try {
+            return interceptor.preHandle(request, response, handler);
+        } catch (RestfulSecurityException e) {
+            return false;
+        } finally {
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+    }
+
+}
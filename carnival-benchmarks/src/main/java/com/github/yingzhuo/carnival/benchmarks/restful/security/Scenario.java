@@ -0,0 +1,39 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.restful.security;
+
+/**
+ * 请求场景
+ *
+ * @author 应卓
+ */
+public enum Scenario {
+
+    /**
+     * 无令牌
+     */
+    NO_TOKEN,
+
+    /**
+     * Bearer令牌 (JWT格式)
+     */
+    BEARER,
+
+    /**
+     * HTTP Basic
+     */
+    BASIC,
+
+    /**
+     * 已拉黑的Bearer令牌
+     */
+    BLACKLISTED
+
+}
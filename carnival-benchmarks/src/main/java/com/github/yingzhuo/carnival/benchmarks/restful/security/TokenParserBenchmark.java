@@ -0,0 +1,96 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.benchmarks.restful.security;
+
+import com.github.yingzhuo.carnival.restful.security.parser.*;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较{@link TokenParser}的原实现与低分配实现
+ * <p>
+ * 分配率请加`-prof gc`运行。
+ *
+ * @author 应卓
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenParserBenchmark {
+
+    private static final String JWT = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9" +
+            ".eyJzdWIiOiIxMjM0NTY3ODkwIiwibmFtZSI6IkpvaG4gRG9lIiwiaWF0IjoxNTE2MjM5MDIyfQ" +
+            ".SflKxwRJSMeKKF2QT4fwpMeJf36POk6yJV_adQssw5c";
+
+    private final TokenParser bearer = new BearerTokenParser();
+    private final TokenParser fastBearer = new FastBearerTokenParser();
+    private final TokenParser basic = new HttpBasicTokenParser();
+    private final TokenParser fastBasic = new FastHttpBasicTokenParser();
+
+    private NativeWebRequest bearerRequest;
+    private NativeWebRequest basicRequest;
+    private NativeWebRequest emptyRequest;
+
+    @Setup
+    public void setup() {
+        bearerRequest = request("Bearer " + JWT);
+        basicRequest = request("Basic " + Base64.getUrlEncoder().encodeToString("someone@example.com:p4ssw0rd".getBytes(StandardCharsets.UTF_8)));
+        emptyRequest = new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+    private static NativeWebRequest request(String authorization) {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", authorization);
+        return new ServletWebRequest(request);
+    }
+
+    @Benchmark
+    public Optional<Token> bearer() {
+        return bearer.parse(bearerRequest, Locale.ROOT);
+    }
+
+    @Benchmark
+    public Optional<Token> fastBearer() {
+        return fastBearer.parse(bearerRequest, Locale.ROOT);
+    }
+
+    @Benchmark
+    public Optional<Token> basic() {
+        return basic.parse(basicRequest, Locale.ROOT);
+    }
+
+    @Benchmark
+    public Optional<Token> fastBasic() {
+        return fastBasic.parse(basicRequest, Locale.ROOT);
+    }
+
+    @Benchmark
+    public Optional<Token> bearerNoHeader() {
+        return bearer.parse(emptyRequest, Locale.ROOT);
+    }
+
+    @Benchmark
+    public Optional<Token> fastBearerNoHeader() {
+        return fastBearer.parse(emptyRequest, Locale.ROOT);
+    }
+
+}
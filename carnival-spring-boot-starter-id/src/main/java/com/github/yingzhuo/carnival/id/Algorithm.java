@@ -18,6 +18,26 @@ public enum Algorithm {
 
     UUID_36,
 
+    /**
+     * 非密码学安全，见{@link com.github.yingzhuo.carnival.id.impl.FastUUIDIdGenerator}
+     */
+    UUID_32_FAST,
+
+    /**
+     * 非密码学安全，见{@link com.github.yingzhuo.carnival.id.impl.FastUUIDIdGenerator}
+     */
+    UUID_36_FAST,
+
+    /**
+     * 按时间排序，见{@link com.github.yingzhuo.carnival.id.impl.TimeOrderedUUIDIdGenerator}
+     */
+    UUID_V7_32,
+
+    /**
+     * 按时间排序，见{@link com.github.yingzhuo.carnival.id.impl.TimeOrderedUUIDIdGenerator}
+     */
+    UUID_V7_36,
+
     SNOWFLAKE,
 
     SNOWFLAKE_STRING
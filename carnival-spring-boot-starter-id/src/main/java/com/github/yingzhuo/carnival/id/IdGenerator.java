@@ -9,6 +9,10 @@
  */
 package com.github.yingzhuo.carnival.id;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author 应卓
  */
@@ -17,4 +21,37 @@ public interface IdGenerator<ID> {
 
     public ID nextId();
 
+    /**
+     * 批量获得ID
+     *
+     * @param count 数量
+     * @return ID (不可变)
+     * @throws IllegalArgumentException count小于0
+     */
+    public default List<ID> nextIds(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be less than 0");
+        }
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        final List<ID> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(nextId());
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 批量获得ID，填满数组
+     *
+     * @param dest 数组
+     */
+    public default void fillIds(ID[] dest) {
+        for (int i = 0; i < dest.length; i++) {
+            dest[i] = nextId();
+        }
+    }
+
 }
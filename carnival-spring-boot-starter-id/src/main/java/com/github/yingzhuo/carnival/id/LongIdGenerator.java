@@ -9,6 +9,10 @@
  */
 package com.github.yingzhuo.carnival.id;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author 应卓
  */
@@ -18,4 +22,43 @@ public interface LongIdGenerator extends IdGenerator<Long> {
     @Override
     public Long nextId();
 
+    /**
+     * 获得下一个ID，不装箱
+     *
+     * @return ID
+     */
+    public default long nextLongId() {
+        return nextId();
+    }
+
+    /**
+     * 批量获得ID，填满数组，不装箱
+     *
+     * @param dest 数组
+     */
+    public default void fillIds(long[] dest) {
+        for (int i = 0; i < dest.length; i++) {
+            dest[i] = nextLongId();
+        }
+    }
+
+    @Override
+    public default List<Long> nextIds(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be less than 0");
+        }
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        final long[] ids = new long[count];
+        fillIds(ids);
+
+        final List<Long> list = new ArrayList<>(count);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
 }
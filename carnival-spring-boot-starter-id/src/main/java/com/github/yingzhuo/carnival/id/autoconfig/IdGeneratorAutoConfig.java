@@ -11,21 +11,33 @@ package com.github.yingzhuo.carnival.id.autoconfig;
 
 import com.github.yingzhuo.carnival.id.Algorithm;
 import com.github.yingzhuo.carnival.id.IdGenerator;
+import com.github.yingzhuo.carnival.id.LongIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.ClockBackwardsStrategy;
+import com.github.yingzhuo.carnival.id.impl.FastUUIDIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.SnowflakeClock;
 import com.github.yingzhuo.carnival.id.impl.SnowflakeLongIdGenerator;
 import com.github.yingzhuo.carnival.id.impl.SnowflakeStringIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.StripedSnowflakeLongIdGenerator;
+import com.github.yingzhuo.carnival.id.impl.TimeOrderedUUIDIdGenerator;
 import com.github.yingzhuo.carnival.id.impl.UUID32IdGenerator;
 import com.github.yingzhuo.carnival.id.impl.UUID36IdGenerator;
+import com.github.yingzhuo.carnival.id.lease.LeasedLongIdGenerator;
+import com.github.yingzhuo.carnival.id.lease.WorkerIdAssigner;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import lombok.var;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
+import java.time.Duration;
+import java.util.function.LongFunction;
+
 /**
  * @author 应卓
  */
@@ -42,13 +54,21 @@ public class IdGeneratorAutoConfig {
 
     @Bean
     @ConditionalOnMissingBean
-    public IdGenerator<?> idGenerator() {
+    public IdGenerator<?> idGenerator(ObjectProvider<WorkerIdAssigner> workerIdAssigner) {
 
         switch (props.getAlgorithm()) {
             case UUID_32:
                 return new UUID32IdGenerator();
             case UUID_36:
                 return new UUID36IdGenerator();
+            case UUID_32_FAST:
+                return new FastUUIDIdGenerator(false);
+            case UUID_36_FAST:
+                return new FastUUIDIdGenerator(true);
+            case UUID_V7_32:
+                return new TimeOrderedUUIDIdGenerator(false);
+            case UUID_V7_36:
+                return new TimeOrderedUUIDIdGenerator(true);
             case SNOWFLAKE:
             case SNOWFLAKE_STRING:
                 var workerId = props.getSnowflake().getWorkerId();
@@ -64,13 +84,34 @@ public class IdGeneratorAutoConfig {
                     dataCenterId = envDataCenterId;
                 }
 
+                val stripes = props.getSnowflake().getStripes();
+                val stripeMode = props.getSnowflake().getStripeMode();
+
+                // 申领工作机器ID，优先于配置
+                val assigner = workerIdAssigner.getIfAvailable();
+                if (assigner != null) {
+                    val slots = stripes > 1 && stripeMode == StripedSnowflakeLongIdGenerator.StripeMode.WORKER_ID ? 32 / stripes : 32;
+                    workerId = assigner.acquire(dataCenterId, slots);
+                }
+
                 log.info("SNOWFLAKE_WORKER_ID: {}", workerId);
                 log.info("SNOWFLAKE_DATA_CENTER_ID: {}", dataCenterId);
 
+                val clock = new SnowflakeClock(props.getSnowflake().getClockBackwardsStrategy(), props.getSnowflake().getMaxClockBackwards().toMillis());
+                val finalDataCenterId = dataCenterId;
+                final LongFunction<LongIdGenerator> factory = id -> stripes > 1 ?
+                        new StripedSnowflakeLongIdGenerator(id, finalDataCenterId, stripes, stripeMode, clock) :
+                        new SnowflakeLongIdGenerator(id, finalDataCenterId, clock);
+
+                // 租约丢失后重新申领的工作机器ID可能不同
+                final LongIdGenerator longIdGenerator = assigner != null ?
+                        new LeasedLongIdGenerator(assigner, factory) :
+                        factory.apply(workerId);
+
                 if (props.getAlgorithm() == Algorithm.SNOWFLAKE) {
-                    return new SnowflakeLongIdGenerator(workerId, dataCenterId);
+                    return longIdGenerator;
                 } else {
-                    return new SnowflakeStringIdGenerator(workerId, dataCenterId, props.getSnowflake().getLength(), props.getSnowflake().getPadCharacter());
+                    return new SnowflakeStringIdGenerator(longIdGenerator, props.getSnowflake().getEncoding(), props.getSnowflake().getLength(), props.getSnowflake().getPadCharacter());
                 }
             default:
                 throw new AssertionError();      // 程序不会运行到此处
@@ -108,6 +149,11 @@ public class IdGeneratorAutoConfig {
             private long dataCenterId = 0L;
             private int length = 32;
             private char padCharacter = '0';
+            private SnowflakeStringIdGenerator.Encoding encoding = SnowflakeStringIdGenerator.Encoding.DECIMAL;
+            private int stripes = 1;
+            private StripedSnowflakeLongIdGenerator.StripeMode stripeMode = StripedSnowflakeLongIdGenerator.StripeMode.WORKER_ID;
+            private ClockBackwardsStrategy clockBackwardsStrategy = ClockBackwardsStrategy.FAIL;
+            private Duration maxClockBackwards = Duration.ofMillis(100L);
         }
     }
 
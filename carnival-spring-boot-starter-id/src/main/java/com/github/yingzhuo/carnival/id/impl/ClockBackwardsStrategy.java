@@ -0,0 +1,34 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+/**
+ * 系统时钟回退时的处理策略
+ *
+ * @author 应卓
+ */
+public enum ClockBackwardsStrategy {
+
+    /**
+     * 抛出异常
+     */
+    FAIL,
+
+    /**
+     * 回退不超过上限时，挂起等待时钟追上，否则抛出异常
+     */
+    WAIT,
+
+    /**
+     * 逻辑时钟: 回退不超过上限时，继续使用上次的时间截，序列用尽时借用下一毫秒，否则抛出异常
+     */
+    LOGICAL_CLOCK
+
+}
@@ -0,0 +1,48 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import com.github.yingzhuo.carnival.id.StringIdGenerator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于{@link ThreadLocalRandom}的UUID (版本4)
+ * <p>
+ * 线程之间不共享随机数生成器。{@link ThreadLocalRandom}不是密码学安全的，生成的ID可以被预测，不要用作令牌等需要保密的值。
+ *
+ * @author 应卓
+ */
+public class FastUUIDIdGenerator implements StringIdGenerator {
+
+    private final boolean dashes;
+
+    public FastUUIDIdGenerator() {
+        this(true);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param dashes true时生成36位，false时生成32位
+     */
+    public FastUUIDIdGenerator(boolean dashes) {
+        this.dashes = dashes;
+    }
+
+    @Override
+    public String nextId() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long msb = (random.nextLong() & ~0xF000L) | 0x4000L;                          // 版本4
+        final long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;   // IETF变体
+        return UUIDFormatter.format(msb, lsb, dashes);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake算法使用的时钟
+ * <p>
+ * 等待时挂起线程，不占用CPU。
+ *
+ * @author 应卓
+ */
+public final class SnowflakeClock {
+
+    public static final SnowflakeClock DEFAULT = new SnowflakeClock(ClockBackwardsStrategy.FAIL, 0L);
+
+    /**
+     * 每次挂起的最短时间
+     */
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100L);
+
+    private final ClockBackwardsStrategy strategy;
+    private final long maxBackwardsMillis;
+    private final LongSupplier clock;
+
+    /**
+     * 构造函数
+     *
+     * @param strategy           时钟回退时的处理策略
+     * @param maxBackwardsMillis 可以容忍的回退 (WAIT) 或超前 (LOGICAL_CLOCK) 的毫秒数
+     */
+    public SnowflakeClock(ClockBackwardsStrategy strategy, long maxBackwardsMillis) {
+        this(strategy, maxBackwardsMillis, System::currentTimeMillis);
+    }
+
+    // 测试时注入可以回退的时钟
+    SnowflakeClock(ClockBackwardsStrategy strategy, long maxBackwardsMillis, LongSupplier clock) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("strategy can't be null");
+        }
+        if (maxBackwardsMillis < 0) {
+            throw new IllegalArgumentException("max backwards millis can't be less than 0");
+        }
+        this.strategy = strategy;
+        this.maxBackwardsMillis = maxBackwardsMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 生成ID使用的时间截
+     *
+     * @param lastTimestamp 上次生成ID的时间截
+     * @return 时间截，不小于lastTimestamp
+     */
+    public long currentTimeMillis(long lastTimestamp) {
+        final long timestamp = timeGen();
+        if (timestamp >= lastTimestamp) {
+            return timestamp;
+        }
+
+        final long backwards = lastTimestamp - timestamp;
+        if (strategy == ClockBackwardsStrategy.FAIL || backwards > maxBackwardsMillis) {
+            throw new RuntimeException(
+                    String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", backwards));
+        }
+
+        if (strategy == ClockBackwardsStrategy.LOGICAL_CLOCK) {
+            return lastTimestamp;
+        }
+        return waitUntil(lastTimestamp);
+    }
+
+    /**
+     * 毫秒内序列用尽，获得下一个时间截
+     *
+     * @param lastTimestamp 上次生成ID的时间截
+     * @return 时间截，大于lastTimestamp
+     */
+    public long tilNextMillis(long lastTimestamp) {
+        if (strategy == ClockBackwardsStrategy.LOGICAL_CLOCK && lastTimestamp + 1 - timeGen() <= maxBackwardsMillis) {
+            return lastTimestamp + 1;
+        }
+        return waitUntil(lastTimestamp + 1);
+    }
+
+    private long waitUntil(long target) {
+        long timestamp = timeGen();
+        while (timestamp < target) {
+            LockSupport.parkNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(target - timestamp - 1), MIN_PARK_NANOS));
+            timestamp = timeGen();
+        }
+        return timestamp;
+    }
+
+    private long timeGen() {
+        return clock.getAsLong();
+    }
+
+}
@@ -11,7 +11,13 @@ package com.github.yingzhuo.carnival.id.impl;
 
 import com.github.yingzhuo.carnival.id.LongIdGenerator;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
+ * Snowflake算法
+ * <p>
+ * 上次生成ID的时间截与毫秒内序列合并在一个{@link AtomicLong}中，通过CAS更新，不加锁。
+ *
  * @author 应卓
  */
 public class SnowflakeLongIdGenerator implements LongIdGenerator {
@@ -77,14 +83,14 @@ public class SnowflakeLongIdGenerator implements LongIdGenerator {
     private long dataCenterId;
 
     /**
-     * 毫秒内序列(0~4095)
+     * 上次生成ID的时间截(相对twepoch)左移12位，与毫秒内序列(0~4095)拼在一起
      */
-    private long sequence = 0L;
+    private final AtomicLong state = new AtomicLong(-1L);
 
     /**
-     * 上次生成ID的时间截
+     * 状态的推进
      */
-    private long lastTimestamp = -1L;
+    private final SnowflakeSequence sequence;
 
     /**
      * 构造函数
@@ -93,6 +99,17 @@ public class SnowflakeLongIdGenerator implements LongIdGenerator {
      * @param dataCenterId 数据中心ID (0~31)
      */
     public SnowflakeLongIdGenerator(long workerId, long dataCenterId) {
+        this(workerId, dataCenterId, SnowflakeClock.DEFAULT);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param workerId     工作ID (0~31)
+     * @param dataCenterId 数据中心ID (0~31)
+     * @param clock        时钟
+     */
+    public SnowflakeLongIdGenerator(long workerId, long dataCenterId, SnowflakeClock clock) {
         if (workerId > maxWorkerId || workerId < 0) {
             throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
         }
@@ -101,6 +118,7 @@ public class SnowflakeLongIdGenerator implements LongIdGenerator {
         }
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
+        this.sequence = new SnowflakeSequence(twepoch, sequenceBits, clock);
     }
 
     /**
@@ -108,59 +126,65 @@ public class SnowflakeLongIdGenerator implements LongIdGenerator {
      *
      * @return SnowflakeId
      */
-    public synchronized Long nextId() {
-        long timestamp = timeGen();
+    @Override
+    public Long nextId() {
+        return nextLongId();
+    }
 
-        //如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过这个时候应当抛出异常
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException(
-                    String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
-        }
+    /**
+     * 获得下一个ID (该方法是线程安全的)
+     *
+     * @return SnowflakeId
+     */
+    @Override
+    public long nextLongId() {
+        while (true) {
+            // 先读状态再读时钟，其他线程写入的时间截不会晚于本线程读到的时钟
+            final long last = state.get();
+            final long next = sequence.next(last);
 
-        //如果是同一时间生成的，则进行毫秒内序列
-        if (lastTimestamp == timestamp) {
-            sequence = (sequence + 1) & sequenceMask;
-            //毫秒内序列溢出
-            if (sequence == 0) {
-                //阻塞到下一个毫秒,获得新的时间戳
-                timestamp = tilNextMillis(lastTimestamp);
+            if (state.compareAndSet(last, next)) {
+                return toId(next);
             }
         }
-        //时间戳改变，毫秒内序列重置
-        else {
-            sequence = 0L;
-        }
-
-        //上次生成ID的时间截
-        lastTimestamp = timestamp;
-
-        //移位并通过或运算拼到一起组成64位的ID
-        return ((timestamp - twepoch) << timestampLeftShift) //
-                | (dataCenterId << dataCenterIdShift) //
-                | (workerId << workerIdShift) //
-                | sequence;
     }
 
     /**
-     * 阻塞到下一个毫秒，直到获得新的时间戳
+     * 批量获得ID (该方法是线程安全的)
+     * <p>
+     * 每次CAS预留当前毫秒内剩余的一段连续序列，段内的ID依次加一。
      *
-     * @param lastTimestamp 上次生成ID的时间截
-     * @return 当前时间戳
-     */
-    private long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
+     * @param dest 数组
+     */
+    @Override
+    public void fillIds(long[] dest) {
+        int offset = 0;
+        while (offset < dest.length) {
+            final long last = state.get();
+            final long first = sequence.next(last);
+
+            final int count = sequence.available(first, dest.length - offset);
+            if (state.compareAndSet(last, first + count - 1)) {
+                final long id = toId(first);
+                for (int i = 0; i < count; i++) {
+                    dest[offset + i] = id + i;
+                }
+                offset += count;
+            }
         }
-        return timestamp;
     }
 
     /**
-     * 返回以毫秒为单位的当前时间
+     * 移位并通过或运算拼到一起组成64位的ID
      *
-     * @return 当前时间(毫秒)
+     * @param state 时间截与毫秒内序列
+     * @return SnowflakeId
      */
-    private long timeGen() {
-        return System.currentTimeMillis();
+    private long toId(long state) {
+        return ((state >> sequenceBits) << timestampLeftShift) //
+                | (dataCenterId << dataCenterIdShift) //
+                | (workerId << workerIdShift) //
+                | (state & sequenceMask);
     }
+
 }
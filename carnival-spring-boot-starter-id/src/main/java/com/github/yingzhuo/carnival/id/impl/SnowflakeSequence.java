@@ -0,0 +1,75 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+/**
+ * Snowflake状态的推进
+ * <p>
+ * 状态为上次生成ID的时间截(相对开始时间截)左移sequenceBits位，与毫秒内序列拼在一起。
+ * {@link SnowflakeLongIdGenerator}与{@link StripedSnowflakeLongIdGenerator}共用，调用者负责CAS。
+ *
+ * @author 应卓
+ */
+final class SnowflakeSequence {
+
+    private final long twepoch;
+    private final long sequenceBits;
+    private final long sequenceMask;
+    private final SnowflakeClock clock;
+
+    /**
+     * 构造函数
+     *
+     * @param twepoch      开始时间截
+     * @param sequenceBits 序列所占的位数
+     * @param clock        时钟
+     */
+    SnowflakeSequence(long twepoch, long sequenceBits, SnowflakeClock clock) {
+        this.twepoch = twepoch;
+        this.sequenceBits = sequenceBits;
+        this.sequenceMask = -1L ^ (-1L << sequenceBits);
+        this.clock = clock;
+    }
+
+    /**
+     * 下一个状态
+     *
+     * @param last 当前状态，须先于时钟读取
+     * @return 下一个状态
+     */
+    long next(long last) {
+        final long lastTimestamp = last >> sequenceBits;
+        //系统时钟回退时按策略处理，返回的时间截不小于上次的时间截
+        final long timestamp = clock.currentTimeMillis(lastTimestamp + twepoch) - twepoch;
+
+        //如果是同一时间生成的，则进行毫秒内序列
+        if (timestamp == lastTimestamp) {
+            //毫秒内序列溢出，挂起到下一个毫秒 (或借用下一毫秒)
+            if ((last & sequenceMask) == sequenceMask) {
+                return (clock.tilNextMillis(lastTimestamp + twepoch) - twepoch) << sequenceBits;
+            }
+            return last + 1;
+        }
+        //时间戳改变，毫秒内序列重置
+        return timestamp << sequenceBits;
+    }
+
+    /**
+     * 从状态first开始，同一毫秒内可以预留的序列数
+     *
+     * @param first  {@link #next(long)}的结果
+     * @param wanted 需要的数量
+     * @return 数量，不超过wanted
+     */
+    int available(long first, int wanted) {
+        return (int) Math.min(wanted, sequenceMask - (first & sequenceMask) + 1);
+    }
+
+}
@@ -10,29 +10,208 @@
 package com.github.yingzhuo.carnival.id.impl;
 
 import com.github.yingzhuo.carnival.id.IdGenerator;
+import com.github.yingzhuo.carnival.id.LongIdGenerator;
+
+import java.util.Arrays;
 
 /**
+ * 字符串形式的Snowflake ID
+ * <p>
+ * 输出定长，字典序与数值顺序一致，可以通过{@link #decode(String)}还原为long。
+ *
  * @author 应卓
  */
 public class SnowflakeStringIdGenerator implements IdGenerator<String> {
 
-    private final SnowflakeLongIdGenerator delegate;
+    private static final char[] DECIMAL_DIGITS = "0123456789".toCharArray();
+    private static final char[] BASE32_DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final char[] BASE62_DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final byte[] DECIMAL_VALUES = values(DECIMAL_DIGITS, false);
+    private static final byte[] BASE32_VALUES = values(BASE32_DIGITS, true);
+    private static final byte[] BASE62_VALUES = values(BASE62_DIGITS, false);
+
+    private static final int BASE32_WIDTH = 13;     // 13 * 5 >= 64
+    private static final int BASE62_WIDTH = 11;     // 62 ^ 11 > 2 ^ 63
+
+    private final LongIdGenerator delegate;
+    private final Encoding encoding;
     private final int length;
     private final char padCharacter;
 
     public SnowflakeStringIdGenerator(long workerId, long dataCenterId, int length, char padCharacter) {
-        this.delegate = new SnowflakeLongIdGenerator(workerId, dataCenterId);
+        this(new SnowflakeLongIdGenerator(workerId, dataCenterId), length, padCharacter);
+    }
+
+    public SnowflakeStringIdGenerator(LongIdGenerator delegate, int length, char padCharacter) {
+        this(delegate, Encoding.DECIMAL, length, padCharacter);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param delegate     生成long形式的ID
+     * @param encoding     编码
+     * @param length       长度，仅DECIMAL时有效
+     * @param padCharacter 填充字符，仅DECIMAL时有效
+     */
+    public SnowflakeStringIdGenerator(LongIdGenerator delegate, Encoding encoding, int length, char padCharacter) {
+        this.delegate = delegate;
+        this.encoding = encoding;
         this.length = length;
         this.padCharacter = padCharacter;
     }
 
     @Override
     public String nextId() {
-        String id = String.valueOf(delegate.nextId());
-        while (id.length() < this.length) {
-            id = padCharacter + id;
+        return encode(delegate.nextLongId());
+    }
+
+    @Override
+    public void fillIds(String[] dest) {
+        final long[] ids = new long[dest.length];
+        delegate.fillIds(ids);
+        for (int i = 0; i < ids.length; i++) {
+            dest[i] = encode(ids[i]);
+        }
+    }
+
+    /**
+     * 编码
+     *
+     * @param id long形式的ID (非负)
+     * @return 字符串形式的ID
+     */
+    public String encode(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id can't be less than 0");
+        }
+
+        switch (encoding) {
+            case BASE32:
+                return encodeBase32(id);
+            case BASE62:
+                return encodeBase62(id);
+            default:
+                return encodeDecimal(id);
+        }
+    }
+
+    /**
+     * 解码
+     *
+     * @param id 字符串形式的ID
+     * @return long形式的ID
+     */
+    public long decode(String id) {
+        switch (encoding) {
+            case BASE32:
+                return decode(id, 32, BASE32_VALUES);
+            case BASE62:
+                return decode(id, 62, BASE62_VALUES);
+            default:
+                int start = 0;
+                while (start < id.length() - 1 && id.charAt(start) == padCharacter) {
+                    start++;
+                }
+                return decode(id.substring(start), 10, DECIMAL_VALUES);
+        }
+    }
+
+    private String encodeDecimal(long id) {
+        int digits = 1;
+        for (long n = id / 10; n != 0; n /= 10) {
+            digits++;
         }
-        return id;
+
+        final char[] buf = new char[Math.max(digits, length)];
+        int pos = buf.length;
+        do {
+            buf[--pos] = DECIMAL_DIGITS[(int) (id % 10)];
+            id /= 10;
+        } while (id != 0);
+        while (pos > 0) {
+            buf[--pos] = padCharacter;
+        }
+        return new String(buf);
+    }
+
+    private static String encodeBase32(long id) {
+        final char[] buf = new char[BASE32_WIDTH];
+        for (int pos = BASE32_WIDTH - 1; pos >= 0; pos--) {
+            buf[pos] = BASE32_DIGITS[(int) (id & 0x1F)];
+            id >>>= 5;
+        }
+        return new String(buf);
+    }
+
+    private static String encodeBase62(long id) {
+        final char[] buf = new char[BASE62_WIDTH];
+        for (int pos = BASE62_WIDTH - 1; pos >= 0; pos--) {
+            buf[pos] = BASE62_DIGITS[(int) (id % 62)];
+            id /= 62;
+        }
+        return new String(buf);
+    }
+
+    private static long decode(String id, int radix, byte[] values) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("invalid id: " + id);
+        }
+
+        long result = 0L;
+        for (int i = 0; i < id.length(); i++) {
+            final char c = id.charAt(i);
+            final int value = c < values.length ? values[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("invalid id: " + id);
+            }
+            try {
+                result = Math.addExact(Math.multiplyExact(result, radix), value);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("invalid id: " + id);
+            }
+        }
+        return result;
+    }
+
+    private static byte[] values(char[] digits, boolean crockford) {
+        final byte[] values = new byte[128];
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < digits.length; i++) {
+            values[digits[i]] = (byte) i;
+            if (crockford) {
+                values[Character.toLowerCase(digits[i])] = (byte) i;
+            }
+        }
+        if (crockford) {
+            values['O'] = values['o'] = 0;
+            values['I'] = values['i'] = values['L'] = values['l'] = 1;
+        }
+        return values;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * 编码
+     */
+    public enum Encoding {
+
+        /**
+         * 十进制，不足长度时左侧填充
+         */
+        DECIMAL,
+
+        /**
+         * Crockford Base32，13位，不区分大小写
+         */
+        BASE32,
+
+        /**
+         * Base62，11位，区分大小写，数据库须使用区分大小写的排序规则 (例如utf8mb4_bin)
+         */
+        BASE62
     }
 
 }
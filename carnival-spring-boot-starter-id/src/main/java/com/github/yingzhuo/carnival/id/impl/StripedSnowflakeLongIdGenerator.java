@@ -0,0 +1,231 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import com.github.yingzhuo.carnival.id.LongIdGenerator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段的Snowflake算法
+ * <p>
+ * 每个线程按线程ID固定使用一个分段，各分段的状态位于不同的缓存行，互不竞争。
+ * ID的位布局与{@link SnowflakeLongIdGenerator}相同，分段号占用其中一部分位，因此ID全局唯一，同一毫秒内不同分段的ID之间不保证顺序。
+ *
+ * <ul>
+ * <li>{@link StripeMode#WORKER_ID} (默认): 分段号占用工作机器ID的低位，每个分段每毫秒最多生成4096个ID，工作机器ID的取值范围缩小为{@code 0 ~ 32 / stripes - 1}</li>
+ * <li>{@link StripeMode#SEQUENCE}: 分段号占用毫秒内序列的高位，总量不变，但每个分段每毫秒最多生成{@code 4096 / stripes}个ID，
+ * 单个线程 (例如批量导入) 的吞吐量随分段数下降</li>
+ * </ul>
+ *
+ * @author 应卓
+ */
+public class StripedSnowflakeLongIdGenerator implements LongIdGenerator {
+
+    /**
+     * 开始时间截 (2015-01-01)
+     */
+    private static final long TWEPOCH = 1420041600000L;
+
+    private static final long WORKER_ID_BITS = 5L;
+    private static final long DATA_CENTER_ID_BITS = 5L;
+    private static final long SEQUENCE_BITS = 12L;
+
+    private static final long MAX_WORKER_ID = -1L ^ (-1L << WORKER_ID_BITS);
+    private static final long MAX_DATA_CENTER_ID = -1L ^ (-1L << DATA_CENTER_ID_BITS);
+    private static final long MAX_STRIPES = 1L << SEQUENCE_BITS;
+
+    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final long DATA_CENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+    private static final long TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATA_CENTER_ID_BITS;
+
+    /**
+     * 每个分段占用16个long (128字节)，避免伪共享
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * 数据中心ID与工作机器ID
+     */
+    private final long node;
+
+    private final int stripeMask;
+
+    /**
+     * 分段号左移的位数
+     */
+    private final long stripeShift;
+
+    /**
+     * 分段内序列所占的位数
+     */
+    private final long localSequenceBits;
+
+    private final long localSequenceMask;
+
+    /**
+     * 每个分段的上次生成ID的时间截左移localSequenceBits位，与分段内序列拼在一起
+     */
+    private final AtomicLongArray states;
+
+    private final SnowflakeSequence sequence;
+
+    /**
+     * 构造函数
+     *
+     * @param workerId     工作ID (0 ~ 32 / stripes - 1)
+     * @param dataCenterId 数据中心ID (0~31)
+     * @param stripes      分段数 (2的幂，1~32)
+     */
+    public StripedSnowflakeLongIdGenerator(long workerId, long dataCenterId, int stripes) {
+        this(workerId, dataCenterId, stripes, StripeMode.WORKER_ID, SnowflakeClock.DEFAULT);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param workerId     工作ID (SEQUENCE: 0~31，WORKER_ID: 0 ~ 32 / stripes - 1)
+     * @param dataCenterId 数据中心ID (0~31)
+     * @param stripes      分段数 (2的幂，SEQUENCE: 1~4096，WORKER_ID: 1~32)
+     * @param mode         分段号占用的位
+     */
+    public StripedSnowflakeLongIdGenerator(long workerId, long dataCenterId, int stripes, StripeMode mode) {
+        this(workerId, dataCenterId, stripes, mode, SnowflakeClock.DEFAULT);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param workerId     工作ID (SEQUENCE: 0~31，WORKER_ID: 0 ~ 32 / stripes - 1)
+     * @param dataCenterId 数据中心ID (0~31)
+     * @param stripes      分段数 (2的幂，SEQUENCE: 1~4096，WORKER_ID: 1~32)
+     * @param mode         分段号占用的位
+     * @param clock        时钟
+     */
+    public StripedSnowflakeLongIdGenerator(long workerId, long dataCenterId, int stripes, StripeMode mode, SnowflakeClock clock) {
+        final long maxStripes = mode == StripeMode.WORKER_ID ? MAX_WORKER_ID + 1 : MAX_STRIPES;
+        if (stripes <= 0 || stripes > maxStripes || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException(String.format("stripes must be a power of two between 1 and %d", maxStripes));
+        }
+
+        final int stripeBits = Integer.numberOfTrailingZeros(stripes);
+        final long maxWorkerId = mode == StripeMode.WORKER_ID ? MAX_WORKER_ID >> stripeBits : MAX_WORKER_ID;
+        if (workerId > maxWorkerId || workerId < 0) {
+            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
+        }
+        if (dataCenterId > MAX_DATA_CENTER_ID || dataCenterId < 0) {
+            throw new IllegalArgumentException(String.format("data center Id can't be greater than %d or less than 0", MAX_DATA_CENTER_ID));
+        }
+
+        this.stripeMask = stripes - 1;
+        if (mode == StripeMode.WORKER_ID) {
+            this.node = (dataCenterId << DATA_CENTER_ID_SHIFT) | ((workerId << stripeBits) << WORKER_ID_SHIFT);
+            this.localSequenceBits = SEQUENCE_BITS;
+            this.stripeShift = WORKER_ID_SHIFT;
+        } else {
+            this.node = (dataCenterId << DATA_CENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+            this.localSequenceBits = SEQUENCE_BITS - stripeBits;
+            this.stripeShift = localSequenceBits;
+        }
+        this.localSequenceMask = -1L ^ (-1L << localSequenceBits);
+        this.sequence = new SnowflakeSequence(TWEPOCH, localSequenceBits, clock);
+        this.states = new AtomicLongArray(stripes * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            states.set(i * PADDING, -1L);
+        }
+    }
+
+    /**
+     * 获得下一个ID (该方法是线程安全的)
+     *
+     * @return SnowflakeId
+     */
+    @Override
+    public Long nextId() {
+        return nextLongId();
+    }
+
+    /**
+     * 获得下一个ID (该方法是线程安全的)
+     *
+     * @return SnowflakeId
+     */
+    @Override
+    public long nextLongId() {
+        final int stripe = stripe();
+        final int index = stripe * PADDING;
+
+        while (true) {
+            final long last = states.get(index);
+            final long next = sequence.next(last);
+
+            if (states.compareAndSet(index, last, next)) {
+                return toId(stripe, next);
+            }
+        }
+    }
+
+    /**
+     * 批量获得ID (该方法是线程安全的)
+     *
+     * @param dest 数组
+     */
+    @Override
+    public void fillIds(long[] dest) {
+        final int stripe = stripe();
+        final int index = stripe * PADDING;
+
+        int offset = 0;
+        while (offset < dest.length) {
+            final long last = states.get(index);
+            final long first = sequence.next(last);
+
+            final int count = sequence.available(first, dest.length - offset);
+            if (states.compareAndSet(index, last, first + count - 1)) {
+                final long id = toId(stripe, first);
+                for (int i = 0; i < count; i++) {
+                    dest[offset + i] = id + i;
+                }
+                offset += count;
+            }
+        }
+    }
+
+    // 线程ID连续分配，取低位即可均匀分布
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & stripeMask;
+    }
+
+    private long toId(int stripe, long state) {
+        return ((state >> localSequenceBits) << TIMESTAMP_LEFT_SHIFT)
+                | node
+                | ((long) stripe << stripeShift)
+                | (state & localSequenceMask);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * 分段号占用的位
+     */
+    public enum StripeMode {
+
+        /**
+         * 毫秒内序列的高位
+         */
+        SEQUENCE,
+
+        /**
+         * 工作机器ID的低位
+         */
+        WORKER_ID
+    }
+
+}
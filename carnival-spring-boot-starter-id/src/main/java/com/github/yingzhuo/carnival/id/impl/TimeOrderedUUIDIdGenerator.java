@@ -0,0 +1,70 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import com.github.yingzhuo.carnival.id.StringIdGenerator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按时间排序的UUID (版本7)
+ * <p>
+ * 高48位为Unix毫秒时间截，随后12位为毫秒内计数，因此同一生成器生成的ID按字典序严格递增，适合用作B树索引的主键。
+ * 计数用尽或系统时钟回退时，继续使用上次的时间截递增。其余62位随机数来自{@link ThreadLocalRandom}，不是密码学安全的。
+ *
+ * @author 应卓
+ */
+public class TimeOrderedUUIDIdGenerator implements StringIdGenerator {
+
+    private static final long COUNTER_BITS = 12L;
+
+    private final boolean dashes;
+
+    /**
+     * 上次生成ID的时间截左移12位，与毫秒内计数拼在一起
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public TimeOrderedUUIDIdGenerator() {
+        this(true);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param dashes true时生成36位，false时生成32位
+     */
+    public TimeOrderedUUIDIdGenerator(boolean dashes) {
+        this.dashes = dashes;
+    }
+
+    @Override
+    public String nextId() {
+        final long next = nextState();
+        final long msb = ((next >>> COUNTER_BITS) << 16)    // 48位时间截
+                | 0x7000L                                   // 版本7
+                | (next & 0xFFFL);                          // 12位计数
+        final long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return UUIDFormatter.format(msb, lsb, dashes);
+    }
+
+    private long nextState() {
+        final long now = System.currentTimeMillis() << COUNTER_BITS;
+        while (true) {
+            final long last = state.get();
+            final long next = Math.max(now, last + 1);
+            if (state.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+}
@@ -11,6 +11,8 @@ package com.github.yingzhuo.carnival.id.impl;
 
 import com.github.yingzhuo.carnival.id.StringIdGenerator;
 
+import java.util.UUID;
+
 /**
  * @author 应卓
  */
@@ -18,7 +20,7 @@ public class UUID32IdGenerator extends UUID36IdGenerator implements StringIdGene
 
     @Override
     public String nextId() {
-        return super.nextId().replaceAll("-", "");
+        return UUIDFormatter.format(UUID.randomUUID(), false);
     }
 
 }
@@ -0,0 +1,63 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import java.util.UUID;
+
+/**
+ * UUID直接编码为十六进制字符，不使用中间字符串
+ *
+ * @author 应卓
+ */
+final class UUIDFormatter {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private UUIDFormatter() {
+        super();
+    }
+
+    static String format(UUID uuid, boolean dashes) {
+        return format(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), dashes);
+    }
+
+    static String format(long msb, long lsb, boolean dashes) {
+        final char[] buf = new char[dashes ? 36 : 32];
+        int pos = 0;
+        pos = hex(buf, pos, msb >>> 32, 8);
+        if (dashes) {
+            buf[pos++] = '-';
+        }
+        pos = hex(buf, pos, msb >>> 16, 4);
+        if (dashes) {
+            buf[pos++] = '-';
+        }
+        pos = hex(buf, pos, msb, 4);
+        if (dashes) {
+            buf[pos++] = '-';
+        }
+        pos = hex(buf, pos, lsb >>> 48, 4);
+        if (dashes) {
+            buf[pos++] = '-';
+        }
+        hex(buf, pos, lsb, 12);
+        return new String(buf);
+    }
+
+    // value的低digits个十六进制位写入buf
+    private static int hex(char[] buf, int pos, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buf[pos + i] = DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return pos + digits;
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于租约的工作机器ID分配
+ * <p>
+ * 租约在存储中的有效期为timeToLive，每隔timeToLive的1/3续约一次。
+ * 本地认为租约有效的时间只有timeToLive的2/3，早于存储中的过期时间，续约连续失败时先停止生成ID，其他实例才能申领。
+ * <p>
+ * 存储不可用或租约丢失后不会放弃: 之后每次续约时先尝试续约原来的ID，失败时重新申领空闲的ID (优先原来的ID)，
+ * 成功后恢复生成ID。重新申领的ID可能与原来的不同，见{@link #getWorkerId()}。
+ *
+ * @author 应卓
+ */
+@Slf4j
+public abstract class AbstractRenewingWorkerIdAssigner implements WorkerIdAssigner, DisposableBean {
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private Duration timeToLive = Duration.ofSeconds(30L);
+
+    private volatile long validUntil = 0L;
+    private long dataCenterId;
+    private int slots;
+    private volatile long workerId = -1L;
+    private volatile boolean lost = false;
+    private volatile ScheduledExecutorService scheduler;
+
+    @Override
+    public synchronized long acquire(long dataCenterId, int slots) {
+        if (workerId >= 0) {
+            throw new IllegalStateException("worker id already acquired");
+        }
+
+        val ttl = timeToLive.toMillis();
+        val start = System.currentTimeMillis();
+
+        // 从随机位置开始，减少多个实例同时启动时的冲突
+        val candidate = claim(dataCenterId, slots, ThreadLocalRandom.current().nextInt(slots), start + ttl);
+        if (candidate < 0) {
+            throw new IllegalStateException(String.format("no free worker id of data center %d", dataCenterId));
+        }
+
+        this.dataCenterId = dataCenterId;
+        this.slots = slots;
+        this.workerId = candidate;
+        this.validUntil = start + ttl * 2 / 3;
+        startRenewing(ttl);
+        log.info("worker id {} of data center {} acquired by {}", candidate, dataCenterId, owner);
+        return candidate;
+    }
+
+    // 从offset开始依次尝试，不修改validUntil: 调用者须先发布workerId再更新validUntil
+    private long claim(long dataCenterId, int slots, int offset, long expiresAt) {
+        for (int i = 0; i < slots; i++) {
+            val candidate = (offset + i) % slots;
+            if (tryClaim(dataCenterId, candidate, owner, expiresAt)) {
+                return candidate;
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * 当前持有的工作机器ID
+     *
+     * @return 工作机器ID，租约丢失后重新申领时可能变化
+     */
+    @Override
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    @Override
+    public boolean isValid() {
+        return System.currentTimeMillis() < validUntil;
+    }
+
+    @Override
+    public synchronized void release() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+
+        if (workerId >= 0) {
+            validUntil = 0L;
+            try {
+                doRelease(dataCenterId, workerId, owner);
+                log.info("worker id {} of data center {} released", workerId, dataCenterId);
+            } catch (Exception e) {
+                log.warn("failed to release worker id " + workerId, e);
+            }
+            workerId = -1L;
+            lost = false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        release();
+    }
+
+    private void startRenewing(long ttl) {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            val thread = new Thread(r, "worker-id-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        val period = Math.max(ttl / 3, 1L);
+        scheduler.scheduleAtFixedRate(() -> renew(ttl), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void renew(long ttl) {
+        if (workerId < 0) {
+            return;
+        }
+
+        try {
+            if (!lost) {
+                val start = System.currentTimeMillis();
+                if (doRenew(dataCenterId, workerId, owner, start + ttl)) {
+                    validUntil = start + ttl * 2 / 3;
+                    return;
+                }
+                validUntil = 0L;
+                lost = true;
+                log.error("lease of worker id {} lost, id generation stopped until a worker id is claimed again", workerId);
+            }
+            reclaim(ttl);
+        } catch (Exception e) {
+            // 本地的有效期自然到期，下次续约时重试
+            log.warn("failed to renew lease of worker id " + workerId, e);
+        }
+    }
+
+    // 优先申领原来的ID
+    private void reclaim(long ttl) {
+        val previous = workerId;
+        val start = System.currentTimeMillis();
+        val candidate = claim(dataCenterId, slots, (int) previous, start + ttl);
+        if (candidate < 0) {
+            log.warn("no free worker id of data center {}, retry later", dataCenterId);
+            return;
+        }
+
+        // 先发布新的workerId再更新validUntil，否则读到有效的租约时可能仍是原来的ID
+        this.workerId = candidate;
+        this.validUntil = start + ttl * 2 / 3;
+        this.lost = false;
+        log.info("worker id {} of data center {} claimed again by {} (previous: {})", candidate, dataCenterId, owner, previous);
+    }
+
+    /**
+     * 申领一个工作机器ID，未被持有或租约已过期时成功
+     *
+     * @param dataCenterId 数据中心ID
+     * @param workerId     工作机器ID
+     * @param owner        持有者
+     * @param expiresAt    租约过期时间 (毫秒)
+     * @return 是否成功
+     */
+    protected abstract boolean tryClaim(long dataCenterId, long workerId, String owner, long expiresAt);
+
+    /**
+     * 续约，仍由owner持有时成功
+     *
+     * @param dataCenterId 数据中心ID
+     * @param workerId     工作机器ID
+     * @param owner        持有者
+     * @param expiresAt    租约过期时间 (毫秒)
+     * @return 是否成功
+     */
+    protected abstract boolean doRenew(long dataCenterId, long workerId, String owner, long expiresAt);
+
+    /**
+     * 释放，仅当仍由owner持有时
+     *
+     * @param dataCenterId 数据中心ID
+     * @param workerId     工作机器ID
+     * @param owner        持有者
+     */
+    protected abstract void doRelease(long dataCenterId, long workerId, String owner);
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于文件锁的工作机器ID分配，适用于同一台主机上的多个进程
+ * <p>
+ * 每个工作机器ID对应目录下的一个文件，持有文件锁即持有该ID。进程退出时操作系统释放文件锁，不需要续约。
+ * <p>
+ * 文件锁属于整个进程，关闭该文件的任意一个FileChannel都会释放锁，因此本JVM已持有的文件不再打开。
+ *
+ * @author 应卓
+ */
+@Slf4j
+public class FileLockWorkerIdAssigner implements WorkerIdAssigner, DisposableBean {
+
+    // 本JVM已持有锁的文件
+    private static final Set<Path> HELD = ConcurrentHashMap.newKeySet();
+
+    // 本JVM中其他代码持有锁的文件对应的通道，关闭会释放其他代码的锁，因此保留并在下次尝试时复用，每个文件最多一个
+    private static final Map<Path, FileChannel> PARKED = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private Path file;
+    private FileChannel channel;
+    private volatile long workerId = -1L;
+    private volatile FileLock lock;
+
+    public FileLockWorkerIdAssigner(Path directory) {
+        this.directory = Objects.requireNonNull(directory);
+    }
+
+    @Override
+    public synchronized long acquire(long dataCenterId, int slots) {
+        if (lock != null) {
+            throw new IllegalStateException("worker id already acquired");
+        }
+
+        try {
+            Files.createDirectories(directory);
+            final Path dir = directory.toRealPath();
+            for (int workerId = 0; workerId < slots; workerId++) {
+                final Path candidate = dir.resolve("worker-" + dataCenterId + "-" + workerId + ".lock");
+                if (!HELD.add(candidate)) {
+                    continue;
+                }
+
+                final FileLock fl;
+                try {
+                    fl = tryLock(candidate);
+                } catch (IOException e) {
+                    HELD.remove(candidate);
+                    throw e;
+                }
+                if (fl != null) {
+                    this.file = candidate;
+                    this.channel = fl.channel();
+                    this.lock = fl;
+                    this.workerId = workerId;
+                    log.info("worker id {} of data center {} acquired, lock file: {}", workerId, dataCenterId, candidate);
+                    return workerId;
+                }
+                HELD.remove(candidate);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        throw new IllegalStateException(String.format("no free worker id of data center %d", dataCenterId));
+    }
+
+    // 被其他进程持有时返回null，调用者已通过HELD独占该文件
+    private static FileLock tryLock(Path file) throws IOException {
+        FileChannel ch = PARKED.remove(file);
+        if (ch == null || !ch.isOpen()) {
+            ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+
+        final FileLock fl;
+        try {
+            fl = ch.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 本JVM中的其他代码持有该文件的锁，不能关闭ch
+            PARKED.put(file, ch);
+            return null;
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+
+        if (fl == null) {
+            ch.close();
+        }
+        return fl;
+    }
+
+    @Override
+    public boolean isValid() {
+        final FileLock fl = lock;
+        return fl != null && fl.isValid();
+    }
+
+    @Override
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    @Override
+    public synchronized void release() {
+        if (lock != null) {
+            try {
+                lock.release();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("failed to release worker id lock", e);
+            }
+            HELD.remove(file);
+            lock = null;
+            workerId = -1L;
+            channel = null;
+            file = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        release();
+    }
+
+}
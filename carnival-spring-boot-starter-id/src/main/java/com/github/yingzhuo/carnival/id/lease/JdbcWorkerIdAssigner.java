@@ -0,0 +1,129 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Objects;
+
+/**
+ * 基于数据库表的工作机器ID租约
+ *
+ * <pre>
+ * CREATE TABLE carnival_worker_id (
+ *     data_center_id INT          NOT NULL,
+ *     worker_id      INT          NOT NULL,
+ *     owner          VARCHAR(255) NOT NULL,
+ *     expires_at     BIGINT       NOT NULL,
+ *     PRIMARY KEY (data_center_id, worker_id)
+ * );
+ * </pre>
+ * <p>
+ * 过期时间使用各实例的本地时钟，实例之间的时钟偏差应远小于timeToLive。
+ *
+ * @author 应卓
+ */
+public class JdbcWorkerIdAssigner extends AbstractRenewingWorkerIdAssigner {
+
+    private final DataSource dataSource;
+    private final String insertSql;
+    private final String takeOverSql;
+    private final String renewSql;
+    private final String deleteSql;
+
+    public JdbcWorkerIdAssigner(DataSource dataSource) {
+        this(dataSource, "carnival_worker_id");
+    }
+
+    public JdbcWorkerIdAssigner(DataSource dataSource, String tableName) {
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.insertSql = "INSERT INTO " + tableName + " (data_center_id, worker_id, owner, expires_at) VALUES (?, ?, ?, ?)";
+        this.takeOverSql = "UPDATE " + tableName + " SET owner = ?, expires_at = ? WHERE data_center_id = ? AND worker_id = ? AND expires_at < ?";
+        this.renewSql = "UPDATE " + tableName + " SET expires_at = ? WHERE data_center_id = ? AND worker_id = ? AND owner = ?";
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE data_center_id = ? AND worker_id = ? AND owner = ?";
+    }
+
+    @Override
+    protected boolean tryClaim(long dataCenterId, long workerId, String owner, long expiresAt) {
+        try {
+            return update(insertSql, dataCenterId, workerId, owner, expiresAt) == 1;
+        } catch (SQLException e) {
+            if (!isDuplicateKey(e)) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            // 主键冲突，尝试接管已过期的租约
+        }
+
+        try {
+            return update(takeOverSql, owner, expiresAt, dataCenterId, workerId, System.currentTimeMillis()) == 1;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected boolean doRenew(long dataCenterId, long workerId, String owner, long expiresAt) {
+        try {
+            return update(renewSql, expiresAt, dataCenterId, workerId, owner) == 1;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void doRelease(long dataCenterId, long workerId, String owner) {
+        try {
+            update(deleteSql, dataCenterId, workerId, owner);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private int update(String sql, Object... params) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                final int rows = statement.executeUpdate();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                return rows;
+            } catch (SQLException e) {
+                if (!connection.getAutoCommit()) {
+                    rollback(connection, e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static void rollback(Connection connection, SQLException cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // SQLState 23xxx: 违反完整性约束
+    private static boolean isDuplicateKey(SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException) {
+            return true;
+        }
+        final String state = e.getSQLState();
+        return state != null && state.startsWith("23");
+    }
+
+}
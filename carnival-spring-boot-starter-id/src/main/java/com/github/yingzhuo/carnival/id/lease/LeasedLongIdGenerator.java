@@ -0,0 +1,93 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+import com.github.yingzhuo.carnival.id.LongIdGenerator;
+
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * 失去工作机器ID后拒绝生成ID，避免与接管该ID的实例重复
+ * <p>
+ * 租约恢复后继续生成ID，重新申领的工作机器ID与原来不同时，用factory创建新的生成器。
+ *
+ * @author 应卓
+ */
+public class LeasedLongIdGenerator implements LongIdGenerator {
+
+    private final WorkerIdAssigner assigner;
+    private final LongFunction<LongIdGenerator> factory;
+    private volatile Delegate delegate;
+
+    /**
+     * 构造方法
+     *
+     * @param assigner 已申领工作机器ID的assigner
+     * @param factory  以工作机器ID创建生成器
+     */
+    public LeasedLongIdGenerator(WorkerIdAssigner assigner, LongFunction<LongIdGenerator> factory) {
+        this.assigner = Objects.requireNonNull(assigner);
+        this.factory = Objects.requireNonNull(factory);
+
+        final long workerId = assigner.getWorkerId();
+        this.delegate = new Delegate(workerId, Objects.requireNonNull(factory.apply(workerId)));
+    }
+
+    @Override
+    public Long nextId() {
+        return nextLongId();
+    }
+
+    @Override
+    public long nextLongId() {
+        return getDelegate().nextLongId();
+    }
+
+    @Override
+    public void fillIds(long[] dest) {
+        getDelegate().fillIds(dest);
+    }
+
+    private LongIdGenerator getDelegate() {
+        if (!assigner.isValid()) {
+            throw new IllegalStateException("worker id lease lost");
+        }
+
+        final long workerId = assigner.getWorkerId();
+        final Delegate current = this.delegate;
+        if (current.workerId == workerId) {
+            return current.generator;
+        }
+        return swap(workerId);
+    }
+
+    private synchronized LongIdGenerator swap(long workerId) {
+        Delegate current = this.delegate;
+        if (current.workerId != workerId) {
+            current = new Delegate(workerId, Objects.requireNonNull(factory.apply(workerId)));
+            this.delegate = current;
+        }
+        return current.generator;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class Delegate {
+        private final long workerId;
+        private final LongIdGenerator generator;
+
+        private Delegate(long workerId, LongIdGenerator generator) {
+            this.workerId = workerId;
+            this.generator = generator;
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Redis的工作机器ID租约
+ * <p>
+ * 每个工作机器ID对应一个带过期时间的键，值为持有者。续约与释放通过脚本比较持有者，保证原子性。
+ *
+ * @author 应卓
+ */
+public class RedisWorkerIdAssigner extends AbstractRenewingWorkerIdAssigner {
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+
+    public RedisWorkerIdAssigner(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, "carnival:worker-id:");
+    }
+
+    public RedisWorkerIdAssigner(StringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = Objects.requireNonNull(redisTemplate);
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    protected boolean tryClaim(long dataCenterId, long workerId, String owner, long expiresAt) {
+        final long ttl = expiresAt - System.currentTimeMillis();
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key(dataCenterId, workerId), owner, ttl, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    protected boolean doRenew(long dataCenterId, long workerId, String owner, long expiresAt) {
+        final long ttl = expiresAt - System.currentTimeMillis();
+        final Long result = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(key(dataCenterId, workerId)), owner, String.valueOf(ttl));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    protected void doRelease(long dataCenterId, long workerId, String owner) {
+        redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(key(dataCenterId, workerId)), owner);
+    }
+
+    private String key(long dataCenterId, long workerId) {
+        return keyPrefix + dataCenterId + ":" + workerId;
+    }
+
+}
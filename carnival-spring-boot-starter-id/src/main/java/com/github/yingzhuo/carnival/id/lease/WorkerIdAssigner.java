@@ -0,0 +1,51 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+/**
+ * 工作机器ID分配
+ * <p>
+ * 启动时申领一个空闲的工作机器ID并持有，多个实例之间不会重复。
+ * 失去后实现可以重新申领，此时工作机器ID可能变化。
+ *
+ * @author 应卓
+ */
+public interface WorkerIdAssigner {
+
+    /**
+     * 申领
+     *
+     * @param dataCenterId 数据中心ID，不同数据中心的工作机器ID互不影响
+     * @param slots        可用的工作机器ID数量，申领的结果在{@code 0 ~ slots - 1}之间
+     * @return 工作机器ID
+     * @throws IllegalStateException 没有空闲的工作机器ID
+     */
+    public long acquire(long dataCenterId, int slots);
+
+    /**
+     * 是否仍然持有申领的工作机器ID，失去后不能再生成ID
+     *
+     * @return 结果
+     */
+    public boolean isValid();
+
+    /**
+     * 当前持有的工作机器ID
+     *
+     * @return 工作机器ID，未持有时返回-1
+     */
+    public long getWorkerId();
+
+    /**
+     * 释放
+     */
+    public void release();
+
+}
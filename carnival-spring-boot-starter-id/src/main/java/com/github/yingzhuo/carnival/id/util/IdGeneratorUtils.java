@@ -10,11 +10,9 @@
 package com.github.yingzhuo.carnival.id.util;
 
 import com.github.yingzhuo.carnival.id.IdGenerator;
+import com.github.yingzhuo.carnival.id.LongIdGenerator;
 import com.github.yingzhuo.carnival.spring.SpringUtils;
-import lombok.val;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -32,16 +30,21 @@ public final class IdGeneratorUtils {
     }
 
     public static <T> List<T> nextIds(int count) {
+        return ((IdGenerator<T>) SpringUtils.getBean(IdGenerator.class)).nextIds(count);
+    }
 
-        if (count <= 0) {
-            return Collections.emptyList();
-        }
-
-        val list = new ArrayList<T>(count);
-        for (int i = 0; i < count; i ++) {
-            list.set(i, nextId());
+    /**
+     * 批量获得ID，填满数组
+     *
+     * @param dest 数组
+     * @throws IllegalStateException IdGenerator不是LongIdGenerator (例如UUID或字符串算法)
+     */
+    public static void fillIds(long[] dest) {
+        final IdGenerator<?> idGenerator = SpringUtils.getBean(IdGenerator.class);
+        if (!(idGenerator instanceof LongIdGenerator)) {
+            throw new IllegalStateException("IdGenerator is not a LongIdGenerator: " + idGenerator.getClass().getName());
         }
-        return Collections.unmodifiableList(list);
+        ((LongIdGenerator) idGenerator).fillIds(dest);
     }
 
 }
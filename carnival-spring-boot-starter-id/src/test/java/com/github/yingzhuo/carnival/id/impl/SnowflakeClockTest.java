@@ -0,0 +1,118 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class SnowflakeClockTest {
+
+    private static final long NOW = 1600000000000L;
+
+    @Test
+    public void forward() {
+        final SnowflakeClock clock = new SnowflakeClock(ClockBackwardsStrategy.FAIL, 0L, () -> NOW);
+        assertEquals(NOW, clock.currentTimeMillis(NOW - 1));
+        assertEquals(NOW, clock.currentTimeMillis(NOW));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void failOnAnyRollback() {
+        new SnowflakeClock(ClockBackwardsStrategy.FAIL, 100L, () -> NOW).currentTimeMillis(NOW + 1);
+    }
+
+    @Test
+    public void waitWithinBound() {
+        // 回退50毫秒的真实时钟
+        final long offset = 50L;
+        final SnowflakeClock clock = new SnowflakeClock(ClockBackwardsStrategy.WAIT, 100L, () -> System.currentTimeMillis() - offset);
+
+        final long last = System.currentTimeMillis();
+        final long start = System.nanoTime();
+        final long timestamp = clock.currentTimeMillis(last);
+
+        assertTrue(timestamp >= last);
+        assertTrue((System.nanoTime() - start) / 1_000_000L >= offset - 1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void waitBeyondBound() {
+        new SnowflakeClock(ClockBackwardsStrategy.WAIT, 100L, () -> NOW).currentTimeMillis(NOW + 101);
+    }
+
+    @Test
+    public void logicalClockWithinBound() {
+        final SnowflakeClock clock = new SnowflakeClock(ClockBackwardsStrategy.LOGICAL_CLOCK, 100L, () -> NOW);
+        assertEquals(NOW + 100, clock.currentTimeMillis(NOW + 100));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void logicalClockBeyondBound() {
+        new SnowflakeClock(ClockBackwardsStrategy.LOGICAL_CLOCK, 100L, () -> NOW).currentTimeMillis(NOW + 101);
+    }
+
+    @Test
+    public void logicalClockBorrowsNextMillis() {
+        final AtomicLong reads = new AtomicLong();
+        final SnowflakeClock clock = new SnowflakeClock(ClockBackwardsStrategy.LOGICAL_CLOCK, 10L, () -> {
+            reads.incrementAndGet();
+            return NOW;
+        });
+
+        // 时钟不前进，借用下一毫秒，不等待
+        assertEquals(NOW + 1, clock.tilNextMillis(NOW));
+        assertEquals(NOW + 10, clock.tilNextMillis(NOW + 9));
+        assertEquals(2L, reads.get());
+    }
+
+    @Test
+    public void logicalClockWaitsWhenTooFarAhead() {
+        // 每次读取前进1毫秒
+        final AtomicLong time = new AtomicLong(NOW);
+        final SnowflakeClock clock = new SnowflakeClock(ClockBackwardsStrategy.LOGICAL_CLOCK, 10L, time::getAndIncrement);
+
+        assertEquals(NOW + 11, clock.tilNextMillis(NOW + 10));
+        assertTrue(time.get() > NOW + 11);
+    }
+
+    @Test
+    public void tilNextMillisParks() {
+        final SnowflakeClock clock = new SnowflakeClock(ClockBackwardsStrategy.WAIT, 0L, System::currentTimeMillis);
+
+        final long last = System.currentTimeMillis() + 20L;
+        final long start = System.nanoTime();
+        final long timestamp = clock.tilNextMillis(last);
+
+        assertTrue(timestamp > last);
+        assertTrue((System.nanoTime() - start) / 1_000_000L >= 19L);
+    }
+
+    @Test
+    public void generatorBorrowsOnSequenceExhaustion() {
+        // 时钟停在同一毫秒，序列(4096个)用尽后借用下一毫秒
+        final SnowflakeClock clock = new SnowflakeClock(ClockBackwardsStrategy.LOGICAL_CLOCK, 10L, () -> NOW);
+        final SnowflakeLongIdGenerator generator = new SnowflakeLongIdGenerator(1L, 2L, clock);
+
+        long previous = -1L;
+        for (int i = 0; i < 4096 * 2 + 1; i++) {
+            final long id = generator.nextLongId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(2L, (previous >> 22) - (NOW - 1420041600000L));
+    }
+
+}
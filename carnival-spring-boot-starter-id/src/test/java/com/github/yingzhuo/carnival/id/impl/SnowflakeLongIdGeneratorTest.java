@@ -0,0 +1,117 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import com.github.yingzhuo.carnival.id.LongIdGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class SnowflakeLongIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 20000;
+
+    @Test
+    public void uniqueUnderContention() throws Exception {
+        assertUnique(new SnowflakeLongIdGenerator(1L, 2L));
+    }
+
+    @Test
+    public void stripedWorkerIdUniqueUnderContention() throws Exception {
+        assertUnique(new StripedSnowflakeLongIdGenerator(1L, 2L, 8, StripedSnowflakeLongIdGenerator.StripeMode.WORKER_ID));
+    }
+
+    @Test
+    public void stripedSequenceUniqueUnderContention() throws Exception {
+        assertUnique(new StripedSnowflakeLongIdGenerator(1L, 2L, 8, StripedSnowflakeLongIdGenerator.StripeMode.SEQUENCE));
+    }
+
+    @Test
+    public void fillIdsIncreasing() {
+        final LongIdGenerator generator = new SnowflakeLongIdGenerator(1L, 2L);
+        final long[] ids = new long[10000];
+        generator.fillIds(ids);
+
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertTrue(generator.nextLongId() > ids[ids.length - 1]);
+    }
+
+    @Test
+    public void nextIds() {
+        final LongIdGenerator generator = new SnowflakeLongIdGenerator(1L, 2L);
+        assertEquals(100, generator.nextIds(100).size());
+        assertTrue(generator.nextIds(0).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nextIdsNegativeCount() {
+        new SnowflakeLongIdGenerator(1L, 2L).nextIds(-1);
+    }
+
+    // 一半线程逐个生成，一半线程批量生成
+    private static void assertUnique(LongIdGenerator generator) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final boolean batch = t % 2 == 0;
+                futures.add(executor.submit((Callable<long[]>) () -> {
+                    final long[] ids = new long[IDS_PER_THREAD];
+                    start.await();
+                    if (batch) {
+                        for (int i = 0; i < ids.length; i += 100) {
+                            final long[] chunk = new long[100];
+                            generator.fillIds(chunk);
+                            System.arraycopy(chunk, 0, ids, i, chunk.length);
+                        }
+                    } else {
+                        for (int i = 0; i < ids.length; i++) {
+                            ids[i] = generator.nextLongId();
+                        }
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            final long[] all = new long[THREADS * IDS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                final long[] ids = future.get();
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertNotEquals("duplicate id: " + all[i], all[i - 1], all[i]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.impl;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class SnowflakeStringIdGeneratorTest {
+
+    @Test
+    public void decimal() {
+        assertRoundTripAndOrder(generator(SnowflakeStringIdGenerator.Encoding.DECIMAL));
+    }
+
+    @Test
+    public void base32() {
+        assertRoundTripAndOrder(generator(SnowflakeStringIdGenerator.Encoding.BASE32));
+    }
+
+    @Test
+    public void base62() {
+        assertRoundTripAndOrder(generator(SnowflakeStringIdGenerator.Encoding.BASE62));
+    }
+
+    @Test
+    public void generatedIdsSortLikeLongs() {
+        for (SnowflakeStringIdGenerator.Encoding encoding : SnowflakeStringIdGenerator.Encoding.values()) {
+            final SnowflakeStringIdGenerator generator = generator(encoding);
+            final String[] ids = new String[10000];
+            generator.fillIds(ids);
+
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(encoding + ": " + ids[i - 1] + " >= " + ids[i], ids[i - 1].compareTo(ids[i]) < 0);
+                assertTrue(generator.decode(ids[i - 1]) < generator.decode(ids[i]));
+            }
+        }
+    }
+
+    @Test
+    public void base32IsCaseInsensitive() {
+        final SnowflakeStringIdGenerator generator = generator(SnowflakeStringIdGenerator.Encoding.BASE32);
+        final String id = generator.nextId();
+        assertEquals(generator.decode(id), generator.decode(id.toLowerCase()));
+    }
+
+    private static SnowflakeStringIdGenerator generator(SnowflakeStringIdGenerator.Encoding encoding) {
+        return new SnowflakeStringIdGenerator(new SnowflakeLongIdGenerator(1L, 2L), encoding, 32, '0');
+    }
+
+    // 固定宽度编码，字典序须与数值顺序一致
+    private static void assertRoundTripAndOrder(SnowflakeStringIdGenerator generator) {
+        final Random random = new Random(42L);
+        final long[] values = new long[10002];
+        for (int i = 0; i < values.length - 2; i++) {
+            values[i] = random.nextLong() & Long.MAX_VALUE;
+        }
+        values[values.length - 2] = 0L;
+        values[values.length - 1] = Long.MAX_VALUE;
+        Arrays.sort(values);
+
+        String previous = null;
+        for (long value : values) {
+            final String encoded = generator.encode(value);
+            assertEquals(value, generator.decode(encoded));
+            if (previous != null) {
+                assertTrue(previous + " > " + encoded, previous.compareTo(encoded) <= 0);
+            }
+            previous = encoded;
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class AbstractRenewingWorkerIdAssignerTest {
+
+    private static final int SLOTS = 4;
+    private static final long TTL = 300L;
+
+    private final StubAssigner assigner = new StubAssigner();
+
+    @After
+    public void cleanup() {
+        assigner.release();
+    }
+
+    @Test
+    public void acquireAndRenew() throws Exception {
+        final long workerId = assigner.acquire(1L, SLOTS);
+        assertTrue(workerId >= 0 && workerId < SLOTS);
+        assertTrue(assigner.isValid());
+
+        // 数个续约周期之后仍然有效
+        Thread.sleep(TTL * 2);
+        assertTrue(assigner.isValid());
+        assertEquals(workerId, assigner.getWorkerId());
+        assertEquals(assigner.owner(), assigner.leases.get(workerId).owner);
+    }
+
+    @Test
+    public void release() {
+        final long workerId = assigner.acquire(1L, SLOTS);
+        assigner.release();
+
+        assertFalse(assigner.isValid());
+        assertEquals(-1L, assigner.getWorkerId());
+        assertFalse(assigner.leases.containsKey(workerId));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noFreeWorkerId() {
+        for (long i = 0; i < SLOTS; i++) {
+            assigner.leases.put(i, new Lease("other", Long.MAX_VALUE));
+        }
+        assigner.acquire(1L, SLOTS);
+    }
+
+    @Test
+    public void leaseLostThenReclaimed() throws Exception {
+        final long previous = assigner.acquire(1L, SLOTS);
+
+        // 其他实例在续约之前接管了该ID，且占满其余的ID
+        for (long i = 0; i < SLOTS; i++) {
+            assigner.leases.put(i, new Lease("other", Long.MAX_VALUE));
+        }
+        assertTrue(await(() -> !assigner.isValid()));
+
+        final long free = (previous + 1) % SLOTS;
+        assigner.leases.remove(free);
+
+        assertTrue(await(assigner::isValid));
+        assertEquals(free, assigner.getWorkerId());
+        assertEquals(assigner.owner(), assigner.leases.get(free).owner);
+    }
+
+    @Test
+    public void storeUnavailableThenRecovered() throws Exception {
+        final long workerId = assigner.acquire(1L, SLOTS);
+
+        assigner.available = false;
+        assertTrue(await(() -> !assigner.isValid()));
+
+        assigner.available = true;
+        assertTrue(await(assigner::isValid));
+        assertEquals(workerId, assigner.getWorkerId());
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TTL * 10;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10L);
+        }
+        return condition.getAsBoolean();
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class Lease {
+        private final String owner;
+        private final long expiresAt;
+
+        private Lease(String owner, long expiresAt) {
+            this.owner = owner;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class StubAssigner extends AbstractRenewingWorkerIdAssigner {
+
+        private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+        private volatile String owner;
+        private volatile boolean available = true;
+
+        private StubAssigner() {
+            setTimeToLive(Duration.ofMillis(TTL));
+        }
+
+        private String owner() {
+            return owner;
+        }
+
+        @Override
+        protected boolean tryClaim(long dataCenterId, long workerId, String owner, long expiresAt) {
+            check();
+            this.owner = owner;
+            final Lease lease = leases.get(workerId);
+            if (lease != null && lease.expiresAt >= System.currentTimeMillis()) {
+                return false;
+            }
+            leases.put(workerId, new Lease(owner, expiresAt));
+            return true;
+        }
+
+        @Override
+        protected boolean doRenew(long dataCenterId, long workerId, String owner, long expiresAt) {
+            check();
+            final Lease lease = leases.get(workerId);
+            if (lease == null || !owner.equals(lease.owner)) {
+                return false;
+            }
+            leases.put(workerId, new Lease(owner, expiresAt));
+            return true;
+        }
+
+        @Override
+        protected void doRelease(long dataCenterId, long workerId, String owner) {
+            final Lease lease = leases.get(workerId);
+            if (lease != null && owner.equals(lease.owner)) {
+                leases.remove(workerId);
+            }
+        }
+
+        private void check() {
+            if (!available) {
+                throw new IllegalStateException("store unavailable");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.id.lease;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class FileLockWorkerIdAssignerTest {
+
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("worker-id");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void distinctWithinJvm() {
+        final FileLockWorkerIdAssigner a = new FileLockWorkerIdAssigner(directory);
+        final FileLockWorkerIdAssigner b = new FileLockWorkerIdAssigner(directory);
+        try {
+            assertEquals(0L, a.acquire(1L, 4));
+            assertEquals(1L, b.acquire(1L, 4));
+            assertTrue(a.isValid());
+            assertTrue(b.isValid());
+        } finally {
+            a.release();
+            b.release();
+        }
+    }
+
+    @Test
+    public void releasedIdIsReused() {
+        final FileLockWorkerIdAssigner a = new FileLockWorkerIdAssigner(directory);
+        final FileLockWorkerIdAssigner b = new FileLockWorkerIdAssigner(directory);
+        try {
+            assertEquals(0L, a.acquire(1L, 4));
+            a.release();
+            assertFalse(a.isValid());
+            assertEquals(-1L, a.getWorkerId());
+            assertEquals(0L, b.acquire(1L, 4));
+        } finally {
+            b.release();
+        }
+    }
+
+    @Test
+    public void otherCodeInJvmKeepsItsLock() throws IOException {
+        final Path file = directory.toRealPath().resolve("worker-1-0.lock");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.lock();
+
+            final FileLockWorkerIdAssigner a = new FileLockWorkerIdAssigner(directory);
+            try {
+                assertEquals(1L, a.acquire(1L, 4));
+                // 尝试worker-1-0时打开的通道不能被关闭，否则会释放上面的锁
+                assertTrue(lock.isValid());
+            } finally {
+                a.release();
+            }
+            assertTrue(lock.isValid());
+        }
+    }
+
+    @Test
+    public void skipsIdHeldByOtherProcess() throws Exception {
+        final Process child = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                LockHolder.class.getName(),
+                directory.toRealPath().resolve("worker-1-0.lock").toString()
+        ).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+        try {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("locked", reader.readLine());
+
+            final FileLockWorkerIdAssigner a = new FileLockWorkerIdAssigner(directory);
+            try {
+                assertEquals(1L, a.acquire(1L, 4));
+            } finally {
+                a.release();
+            }
+
+            // 子进程退出后操作系统释放文件锁
+            child.getOutputStream().close();
+            assertEquals(0, child.waitFor());
+
+            final FileLockWorkerIdAssigner b = new FileLockWorkerIdAssigner(directory);
+            try {
+                assertEquals(0L, b.acquire(1L, 4));
+            } finally {
+                b.release();
+            }
+        } finally {
+            child.destroyForcibly();
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * 子进程: 锁定文件后输出locked，标准输入关闭时退出
+     */
+    public static final class LockHolder {
+        public static void main(String[] args) throws IOException {
+            try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.lock();
+                System.out.println("locked");
+                System.out.flush();
+                while (System.in.read() >= 0) {
+                    // 等待父进程关闭标准输入
+                }
+            }
+        }
+    }
+
+}
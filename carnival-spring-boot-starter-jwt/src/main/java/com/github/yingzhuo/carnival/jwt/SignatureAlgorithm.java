@@ -26,6 +26,10 @@ public enum SignatureAlgorithm {
 
     RSA384,
 
-    RSA512
+    RSA512,
+
+    ES256,
+
+    ES384
 
 }
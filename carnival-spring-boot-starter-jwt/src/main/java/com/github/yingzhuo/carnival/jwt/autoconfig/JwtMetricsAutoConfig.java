@@ -0,0 +1,58 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.autoconfig;
+
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.key.SimpleJwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.metrics.JwtMetrics;
+import com.github.yingzhuo.carnival.jwt.metrics.MicrometerJwtMetrics;
+import com.github.yingzhuo.carnival.jwt.metrics.NopJwtMetrics;
+import com.github.yingzhuo.carnival.jwt.props.JwtProps;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.val;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Collections;
+
+/**
+ * @author 应卓
+ */
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+@ConditionalOnProperty(prefix = "carnival.jwt.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(JwtProps.class)
+public class JwtMetricsAutoConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtMetrics jwtMetrics(ObjectProvider<MeterRegistry> registry, ObjectProvider<JwtKeyProvider> keyProvider, JwtProps props) {
+        val meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return NopJwtMetrics.INSTANCE;
+        }
+
+        val metricsProps = props.getMetrics();
+        val metrics = new MicrometerJwtMetrics(meterRegistry, metricsProps.isHistogram(), metricsProps.getMaxKeyIds());
+
+        // 已知的kid预先注册
+        val keys = keyProvider.getIfAvailable();
+        if (keys != null && keys.snapshot() instanceof SimpleJwtKeyProvider) {
+            metrics.preRegister(props.getSignatureAlgorithm(), ((SimpleJwtKeyProvider) keys.snapshot()).getPublicKeys().keySet());
+        } else {
+            metrics.preRegister(props.getSignatureAlgorithm(), Collections.emptySet());
+        }
+        return metrics;
+    }
+
+}
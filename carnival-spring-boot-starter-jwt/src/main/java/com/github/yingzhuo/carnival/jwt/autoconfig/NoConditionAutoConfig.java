@@ -10,15 +10,26 @@
 package com.github.yingzhuo.carnival.jwt.autoconfig;
 
 import com.github.yingzhuo.carnival.jwt.RequiresJwt;
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.key.PemUtils;
+import com.github.yingzhuo.carnival.jwt.key.ReloadableJwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.key.SimpleJwtKeyProvider;
 import com.github.yingzhuo.carnival.jwt.props.JwtProps;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Primary;
 
 /**
  * @author 应卓
  */
+@Slf4j
 @ConditionalOnWebApplication
 @EnableConfigurationProperties(JwtProps.class)
 public class NoConditionAutoConfig {
@@ -29,4 +40,49 @@ public class NoConditionAutoConfig {
         return new RequiresJwt.AuthComponent();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @Conditional(KeyConfiguredCondition.class)
+    public JwtKeyProvider jwtKeyProvider(JwtProps props) {
+        val key = props.getKey();
+
+        if (key.getJwksLocation() != null) {
+            log.info("carnival.jwt.key.jwks-location = {}", key.getJwksLocation());
+            log.info("carnival.jwt.key.reload-interval = {}", key.getReloadInterval());
+            val provider = new ReloadableJwtKeyProvider(key.getJwksLocation(), key.getKeyId());
+            provider.setReloadInterval(key.getReloadInterval());
+            return provider;
+        }
+
+        val builder = SimpleJwtKeyProvider.builder();
+        if (key.getPublicKeyLocation() != null) {
+            log.info("carnival.jwt.key.public-key-location = {}", key.getPublicKeyLocation());
+            builder.publicKey(key.getKeyId(), PemUtils.readPublicKey(key.getPublicKeyLocation()));
+        }
+        if (key.getPrivateKeyLocation() != null) {
+            log.info("carnival.jwt.key.private-key-location = {}", key.getPrivateKeyLocation());
+            builder.privateKey(key.getKeyId(), PemUtils.readPrivateKey(key.getPrivateKeyLocation()));
+        }
+        return builder.build();
+    }
+
+    static class KeyConfiguredCondition extends AnyNestedCondition {
+
+        KeyConfiguredCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "carnival.jwt.key", name = "jwks-location")
+        static class Jwks {
+        }
+
+        @ConditionalOnProperty(prefix = "carnival.jwt.key", name = "public-key-location")
+        static class PublicKey {
+        }
+
+        @ConditionalOnProperty(prefix = "carnival.jwt.key", name = "private-key-location")
+        static class PrivateKey {
+        }
+    }
+
 }
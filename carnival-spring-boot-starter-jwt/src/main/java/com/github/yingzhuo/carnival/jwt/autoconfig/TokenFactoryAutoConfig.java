@@ -11,9 +11,18 @@ package com.github.yingzhuo.carnival.jwt.autoconfig;
 
 import com.github.yingzhuo.carnival.jwt.factory.DefaultJwtTokenFactory;
 import com.github.yingzhuo.carnival.jwt.factory.JwtTokenFactory;
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.metrics.JwtMetrics;
 import com.github.yingzhuo.carnival.jwt.props.JwtProps;
+import com.github.yingzhuo.carnival.jwt.refresh.InMemoryRefreshTokenStore;
+import com.github.yingzhuo.carnival.jwt.refresh.RefreshTokenService;
+import com.github.yingzhuo.carnival.jwt.refresh.RefreshTokenStore;
+import com.github.yingzhuo.carnival.jwt.util.InternalUtils;
+import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
 import lombok.val;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 
 /**
@@ -23,11 +32,44 @@ public class TokenFactoryAutoConfig {
 
     @Bean
     @ConditionalOnMissingBean
-    public JwtTokenFactory tokenFactory(JwtProps props) {
+    public JwtTokenFactory tokenFactory(JwtProps props, ObjectProvider<JwtKeyProvider> keyProvider, ObjectProvider<JwtMetrics> metrics) {
         val factory = new DefaultJwtTokenFactory();
         factory.setSecret(props.getSecret());
         factory.setSignatureAlgorithm(props.getSignatureAlgorithm());
+        factory.setKeyProvider(keyProvider.getIfAvailable());
+        factory.setMetrics(metrics.getIfAvailable());
         return factory;
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "carnival.jwt.refresh", name = {"enabled", "in-memory-store"}, havingValue = "true")
+    public RefreshTokenStore refreshTokenStore() {
+        return new InMemoryRefreshTokenStore();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "carnival.jwt.refresh", name = "enabled", havingValue = "true")
+    public RefreshTokenService refreshTokenService(
+            JwtProps props,
+            JwtTokenFactory tokenFactory,
+            ObjectProvider<RefreshTokenStore> store,
+            ObjectProvider<JwtKeyProvider> keyProvider,
+            ObjectProvider<TokenBlackList> tokenBlackList) {
+
+        // 不会默默退化为内存存储，集群中各实例互不知晓对方的轮换
+        val refreshTokenStore = store.getIfAvailable();
+        if (refreshTokenStore == null) {
+            throw new IllegalStateException("no RefreshTokenStore bean, " +
+                    "define one (e.g. JdbcRefreshTokenStore) or set carnival.jwt.refresh.in-memory-store=true for a single instance");
+        }
+
+        val algorithm = InternalUtils.toAlgorithm(props.getSignatureAlgorithm(), props.getSecret(), keyProvider.getIfAvailable());
+        val service = new RefreshTokenService(tokenFactory, algorithm, refreshTokenStore);
+        service.setTimeToLive(props.getRefresh().getTimeToLive());
+        service.setTokenBlackList(tokenBlackList.getIfAvailable());
+        return service;
+    }
+
 }
@@ -0,0 +1,171 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.claims;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.util.*;
+
+import static com.github.yingzhuo.carnival.jwt.claims.ClaimsViewDecoder.*;
+
+/**
+ * 由{@link ClaimsViewDecoder}解码的令牌 (不可变)
+ * <p>
+ * 每个声明过的Claim占据固定的槽位，未声明的Claim总是{@link Claim#isNull()}。
+ *
+ * @author 应卓
+ */
+public final class ClaimsView implements DecodedJWT {
+
+    private final ClaimsViewDecoder decoder;
+    private final String token;
+    private final int dot1;
+    private final int dot2;
+    private final Object[] header;
+    private final Object[] values;
+
+    ClaimsView(ClaimsViewDecoder decoder, String token, int dot1, int dot2, Object[] header, Object[] values) {
+        this.decoder = decoder;
+        this.token = token;
+        this.dot1 = dot1;
+        this.dot2 = dot2;
+        this.header = header;
+        this.values = values;
+    }
+
+    /**
+     * 按名称取值
+     *
+     * @param name Claim名称
+     * @return 值 (String、Number、Boolean、List或Map)，未声明或不存在时返回null
+     */
+    public Object getValue(String name) {
+        final int slot = decoder.slotOf(name);
+        return slot < 0 ? null : values[slot];
+    }
+
+    @Override
+    public String getToken() {
+        return token;
+    }
+
+    @Override
+    public String getHeader() {
+        return token.substring(0, dot1);
+    }
+
+    @Override
+    public String getPayload() {
+        return token.substring(dot1 + 1, dot2);
+    }
+
+    @Override
+    public String getSignature() {
+        return token.substring(dot2 + 1);
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return asString(header[ALG]);
+    }
+
+    @Override
+    public String getType() {
+        return asString(header[TYP]);
+    }
+
+    @Override
+    public String getContentType() {
+        return asString(header[CTY]);
+    }
+
+    @Override
+    public String getKeyId() {
+        return asString(header[KID]);
+    }
+
+    @Override
+    public Claim getHeaderClaim(String name) {
+        final int slot = decoder.headerSlotOf(name);
+        return ViewClaim.of(slot < 0 ? null : header[slot]);
+    }
+
+    @Override
+    public String getIssuer() {
+        return asString(values[ISS]);
+    }
+
+    @Override
+    public String getSubject() {
+        return asString(values[SUB]);
+    }
+
+    @Override
+    public List<String> getAudience() {
+        final Object aud = values[AUD];
+        if (aud instanceof String) {
+            return Collections.singletonList((String) aud);
+        }
+        if (aud instanceof List) {
+            return ViewClaim.of(aud).asList(String.class);
+        }
+        return null;
+    }
+
+    @Override
+    public Date getExpiresAt() {
+        return asDate(values[EXP]);
+    }
+
+    @Override
+    public Date getNotBefore() {
+        return asDate(values[NBF]);
+    }
+
+    @Override
+    public Date getIssuedAt() {
+        return asDate(values[IAT]);
+    }
+
+    @Override
+    public String getId() {
+        return asString(values[JTI]);
+    }
+
+    @Override
+    public Claim getClaim(String name) {
+        return ViewClaim.of(getValue(name));
+    }
+
+    /**
+     * 所有声明过且存在的Claim
+     */
+    @Override
+    public Map<String, Claim> getClaims() {
+        final String[] names = decoder.getNames();
+        final Map<String, Claim> map = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (values[i] != null) {
+                map.put(names[i], ViewClaim.of(values[i]));
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static Date asDate(Object value) {
+        return value instanceof Number ? new Date(((Number) value).longValue() * 1000L) : null;
+    }
+
+}
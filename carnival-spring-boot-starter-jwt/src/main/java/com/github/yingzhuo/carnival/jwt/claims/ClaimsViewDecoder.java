@@ -0,0 +1,214 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.claims;
+
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 流式JWT解码器 (线程安全)
+ * <p>
+ * 只解析预先声明的Claim，其余的直接跳过，不会为整个载荷建立Jackson树。
+ * 注册Claim (iss、sub、aud、exp、nbf、iat、jti) 总是会被解析，验证时需要用到。
+ * <p>
+ * 解码结果交给{@link com.auth0.jwt.interfaces.JWTVerifier#verify(com.auth0.jwt.interfaces.DecodedJWT)}验证，
+ * 算法、签名与时间的检查与原来完全一致。
+ *
+ * @author 应卓
+ * @see ClaimsView
+ */
+public final class ClaimsViewDecoder {
+
+    static final int ISS = 0;
+    static final int SUB = 1;
+    static final int AUD = 2;
+    static final int EXP = 3;
+    static final int NBF = 4;
+    static final int IAT = 5;
+    static final int JTI = 6;
+
+    static final int ALG = 0;
+    static final int TYP = 1;
+    static final int CTY = 2;
+    static final int KID = 3;
+
+    private static final String[] REGISTERED_CLAIMS = {"iss", "sub", "aud", "exp", "nbf", "iat", "jti"};
+    private static final String[] HEADER_CLAIMS = {"alg", "typ", "cty", "kid"};
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    private final String[] names;
+    private final Map<String, Integer> slots;
+    private final Map<String, Integer> headerSlots;
+
+    /**
+     * 构造方法
+     *
+     * @param claimNames 需要的私有Claim
+     */
+    public ClaimsViewDecoder(String... claimNames) {
+        final LinkedHashSet<String> set = new LinkedHashSet<>(Arrays.asList(REGISTERED_CLAIMS));
+        set.addAll(Arrays.asList(claimNames));
+
+        this.names = set.toArray(new String[0]);
+        this.slots = indexOf(names);
+        this.headerSlots = indexOf(HEADER_CLAIMS);
+    }
+
+    /**
+     * 解码 (不验证)
+     *
+     * @param token 令牌
+     * @return 解码结果
+     * @throws JWTDecodeException 令牌格式错误
+     */
+    public ClaimsView decode(String token) {
+        final int dot1 = token.indexOf('.');
+        final int dot2 = dot1 < 0 ? -1 : token.indexOf('.', dot1 + 1);
+        if (dot2 < 0 || token.indexOf('.', dot2 + 1) >= 0) {
+            throw new JWTDecodeException("The token was expected to have 3 parts.");
+        }
+
+        final Object[] header = parse(token, 0, dot1, headerSlots, HEADER_CLAIMS.length);
+        final Object[] payload = parse(token, dot1 + 1, dot2, slots, names.length);
+
+        return new ClaimsView(this, token, dot1, dot2, header, payload);
+    }
+
+    String[] getNames() {
+        return names;
+    }
+
+    int slotOf(String name) {
+        final Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    int headerSlotOf(String name) {
+        final Integer slot = headerSlots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    private static Object[] parse(String token, int begin, int end, Map<String, Integer> slots, int size) {
+        byte[] buffer = BUFFER.get();
+        final int max = (end - begin) * 3 / 4 + 3;
+        if (buffer.length < max) {
+            buffer = new byte[max];
+            BUFFER.set(buffer);
+        }
+
+        final int length = decodeBase64Url(token, begin, end, buffer);
+        final Object[] values = new Object[size];
+
+        try (JsonParser parser = JSON_FACTORY.createParser(buffer, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JWTDecodeException("The string doesn't have a valid JSON format.");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final Integer slot = slots.get(parser.getCurrentName());
+                final JsonToken t = parser.nextToken();
+
+                if (slot == null) {
+                    parser.skipChildren();
+                } else {
+                    values[slot] = readValue(parser, t);
+                }
+            }
+        } catch (IOException e) {
+            throw new JWTDecodeException("The string doesn't have a valid JSON format.", e);
+        }
+
+        return values;
+    }
+
+    private static Object readValue(JsonParser parser, JsonToken t) throws IOException {
+        switch (t) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case START_ARRAY:
+                final List<Object> list = new ArrayList<>();
+                JsonToken e;
+                while ((e = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser, e));
+                }
+                return list;
+            case START_OBJECT:
+                final Map<String, Object> map = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String name = parser.getCurrentName();
+                    map.put(name, readValue(parser, parser.nextToken()));
+                }
+                return map;
+            default:
+                return null;
+        }
+    }
+
+    // Base64Url (无填充) 直接从字符解码到缓冲区
+    private static int decodeBase64Url(String s, int begin, int end, byte[] dst) {
+        int bits = 0;
+        int count = 0;
+        int n = 0;
+
+        for (int i = begin; i < end; i++) {
+            final char c = s.charAt(i);
+            final int v;
+            if (c >= 'A' && c <= 'Z') {
+                v = c - 'A';
+            } else if (c >= 'a' && c <= 'z') {
+                v = c - 'a' + 26;
+            } else if (c >= '0' && c <= '9') {
+                v = c - '0' + 52;
+            } else if (c == '-' || c == '+') {
+                v = 62;
+            } else if (c == '_' || c == '/') {
+                v = 63;
+            } else if (c == '=') {
+                break;
+            } else {
+                throw new JWTDecodeException("Received bytes didn't correspond to a valid Base64 encoded string.");
+            }
+
+            bits = (bits << 6) | v;
+            count += 6;
+            if (count >= 8) {
+                count -= 8;
+                dst[n++] = (byte) (bits >> count);
+            }
+        }
+
+        return n;
+    }
+
+    private static Map<String, Integer> indexOf(String[] names) {
+        final Map<String, Integer> map = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            map.put(names[i], i);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.claims;
+
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.impl.NullClaim;
+import com.auth0.jwt.interfaces.Claim;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于已解析值的{@link Claim}，语义与java-jwt的实现保持一致
+ *
+ * @author 应卓
+ */
+final class ViewClaim implements Claim {
+
+    private static final Claim NULL = new NullClaim();
+
+    static Claim of(Object value) {
+        return value == null ? NULL : new ViewClaim(value);
+    }
+
+    private final Object value;
+
+    private ViewClaim(Object value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean isNull() {
+        return false;
+    }
+
+    @Override
+    public Boolean asBoolean() {
+        return value instanceof Boolean ? (Boolean) value : null;
+    }
+
+    @Override
+    public Integer asInt() {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    @Override
+    public Long asLong() {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    @Override
+    public Double asDouble() {
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+
+    @Override
+    public String asString() {
+        return value instanceof String ? (String) value : null;
+    }
+
+    @Override
+    public Date asDate() {
+        return value instanceof Number ? new Date(((Number) value).longValue() * 1000L) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] asArray(Class<T> tClazz) throws JWTDecodeException {
+        if (!(value instanceof List)) {
+            return null;
+        }
+
+        final List<?> list = (List<?>) value;
+        final T[] array = (T[]) Array.newInstance(tClazz, list.size());
+        for (int i = 0; i < array.length; i++) {
+            array[i] = convert(list.get(i), tClazz);
+        }
+        return array;
+    }
+
+    @Override
+    public <T> List<T> asList(Class<T> tClazz) throws JWTDecodeException {
+        if (!(value instanceof List)) {
+            return null;
+        }
+
+        final List<?> list = (List<?>) value;
+        final List<T> result = new ArrayList<>(list.size());
+        for (Object e : list) {
+            result.add(convert(e, tClazz));
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> asMap() throws JWTDecodeException {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    @Override
+    public <T> T as(Class<T> tClazz) throws JWTDecodeException {
+        return convert(value, tClazz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(Object value, Class<T> tClazz) {
+        if (value == null || tClazz.isInstance(value)) {
+            return (T) value;
+        }
+
+        if (value instanceof Number) {
+            final Number number = (Number) value;
+            if (tClazz == Integer.class) return (T) Integer.valueOf(number.intValue());
+            if (tClazz == Long.class) return (T) Long.valueOf(number.longValue());
+            if (tClazz == Double.class) return (T) Double.valueOf(number.doubleValue());
+        }
+
+        if (tClazz == String.class && !(value instanceof List) && !(value instanceof Map)) {
+            return (T) String.valueOf(value);
+        }
+
+        throw new JWTDecodeException("Couldn't map the Claim's value to " + tClazz.getSimpleName());
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.exception;
+
+/**
+ * 刷新令牌被重复使用，整个令牌族已被撤销
+ *
+ * @author 应卓
+ * @see com.github.yingzhuo.carnival.jwt.refresh.RefreshTokenService
+ */
+public class RefreshTokenReusedException extends InvalidTokenException {
+
+    private static final long serialVersionUID = 2864419907035157210L;
+
+    public RefreshTokenReusedException() {
+        super();
+    }
+
+    public RefreshTokenReusedException(String message) {
+        super(message);
+    }
+
+    public RefreshTokenReusedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RefreshTokenReusedException(Throwable cause) {
+        super(cause);
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.factory;
+
+import com.auth0.jwt.JWTCreator;
+
+import java.util.Date;
+
+/**
+ * 私有Claim写入器
+ * <p>
+ * 按值的类型预先选定对应的{@code withClaim}/{@code withArrayClaim}，每个类型只解析一次。
+ *
+ * @author 应卓
+ */
+enum ClaimWriter {
+
+    STRING {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withClaim(name, (String) value);
+        }
+    },
+
+    INTEGER {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withClaim(name, (Integer) value);
+        }
+    },
+
+    LONG {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withClaim(name, (Long) value);
+        }
+    },
+
+    DOUBLE {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withClaim(name, (Double) value);
+        }
+    },
+
+    BOOLEAN {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withClaim(name, (Boolean) value);
+        }
+    },
+
+    DATE {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withClaim(name, (Date) value);
+        }
+    },
+
+    STRING_ARRAY {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withArrayClaim(name, (String[]) value);
+        }
+    },
+
+    INTEGER_ARRAY {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withArrayClaim(name, (Integer[]) value);
+        }
+    },
+
+    LONG_ARRAY {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            builder.withArrayClaim(name, (Long[]) value);
+        }
+    },
+
+    /**
+     * 不支持的类型，忽略
+     */
+    UNSUPPORTED {
+        @Override
+        void write(JWTCreator.Builder builder, String name, Object value) {
+            // NOP
+        }
+    };
+
+    private static final ClassValue<ClaimWriter> WRITERS = new ClassValue<ClaimWriter>() {
+        @Override
+        protected ClaimWriter computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    static ClaimWriter of(Object value) {
+        return value == null ? UNSUPPORTED : WRITERS.get(value.getClass());
+    }
+
+    private static ClaimWriter resolve(Class<?> type) {
+        if (type == String.class) return STRING;
+        if (type == Integer.class) return INTEGER;
+        if (type == Long.class) return LONG;
+        if (type == Double.class) return DOUBLE;
+        if (type == Boolean.class) return BOOLEAN;
+        if (Date.class.isAssignableFrom(type)) return DATE;
+        if (type == String[].class) return STRING_ARRAY;
+        if (type == Integer[].class) return INTEGER_ARRAY;
+        if (type == Long[].class) return LONG_ARRAY;
+        return UNSUPPORTED;
+    }
+
+    abstract void write(JWTCreator.Builder builder, String name, Object value);
+
+}
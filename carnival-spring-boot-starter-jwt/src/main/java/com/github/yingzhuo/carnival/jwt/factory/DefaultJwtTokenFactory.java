@@ -11,21 +11,31 @@ package com.github.yingzhuo.carnival.jwt.factory;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.metrics.JwtMetrics;
+import com.github.yingzhuo.carnival.jwt.metrics.NopJwtMetrics;
 import com.github.yingzhuo.carnival.jwt.util.InternalUtils;
 
-import java.util.Date;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * @author 应卓
  */
 public class DefaultJwtTokenFactory implements JwtTokenFactory {
 
+    // 少于此数量时并行的开销大于收益
+    private static final int PARALLEL_THRESHOLD = 32;
+
     private String secret;
     private SignatureAlgorithm signatureAlgorithm;
+    private JwtKeyProvider keyProvider;
+    private JwtMetrics metrics = NopJwtMetrics.INSTANCE;
+
+    // 线程安全，配置或密钥快照变化时重建
+    private volatile CachedAlgorithm algorithm;
 
     public DefaultJwtTokenFactory() {
         super();
@@ -35,86 +45,119 @@ public class DefaultJwtTokenFactory implements JwtTokenFactory {
     public String create(JwtTokenInfo info) {
         Objects.requireNonNull(info);
 
-        JWTCreator.Builder builder = JWT.create();
+        final long start = System.nanoTime();
+        final JWTCreator.Builder builder = JWT.create();
 
-        // Public Claims (Public)
-        Optional.ofNullable(info.getKeyId()).ifPresent(builder::withKeyId);
+        // Public Claims (Header)
+        if (info.getKeyId() != null) {
+            builder.withKeyId(info.getKeyId());
+        }
 
         // Public Claims (Payload)
-        Optional.ofNullable(info.getIssuer()).ifPresent(builder::withIssuer);
-        Optional.ofNullable(info.getSubject()).ifPresent(builder::withSubject);
-        Optional.ofNullable(info.getExpiresAt()).ifPresent(builder::withExpiresAt);
-        Optional.ofNullable(info.getNotBefore()).ifPresent(builder::withNotBefore);
-        Optional.ofNullable(info.getIssuedAt()).ifPresent(builder::withIssuedAt);
-        Optional.ofNullable(info.getJwtId()).ifPresent(builder::withJWTId);
-        Optional.ofNullable(info.getAudience()).ifPresent(it -> {
-            if (!it.isEmpty()) {
-                builder.withAudience(info.getAudience().toArray(new String[info.getAudience().size()]));
-            }
-        });
+        if (info.getIssuer() != null) {
+            builder.withIssuer(info.getIssuer());
+        }
+        if (info.getSubject() != null) {
+            builder.withSubject(info.getSubject());
+        }
+        if (info.getExpiresAt() != null) {
+            builder.withExpiresAt(info.getExpiresAt());
+        }
+        if (info.getNotBefore() != null) {
+            builder.withNotBefore(info.getNotBefore());
+        }
+        if (info.getIssuedAt() != null) {
+            builder.withIssuedAt(info.getIssuedAt());
+        }
+        if (info.getJwtId() != null) {
+            builder.withJWTId(info.getJwtId());
+        }
+
+        final List<String> audience = info.getAudience();
+        if (audience != null && !audience.isEmpty()) {
+            builder.withAudience(audience.toArray(new String[0]));
+        }
 
         // Private Claims
-        Optional.ofNullable(info.getPrivateClaims()).ifPresent(map -> {
-            final Set<String> keySet = map.keySet();
-            for (String name : keySet) {
-                Object value = map.get(name);
-
-                if (value instanceof String) {
-                    builder.withClaim(name, (String) value);
-                    continue;
-                }
-
-                if (value instanceof Integer) {
-                    builder.withClaim(name, (Integer) value);
-                    continue;
-                }
-
-                if (value instanceof Boolean) {
-                    builder.withClaim(name, (Boolean) value);
-                    continue;
-                }
-
-                if (value instanceof Date) {
-                    builder.withClaim(name, (Date) value);
-                    continue;
-                }
-
-                if (value instanceof Long) {
-                    builder.withClaim(name, (Long) value);
-                    continue;
-                }
-
-                if (value instanceof Double) {
-                    builder.withClaim(name, (Double) value);
-                    continue;
-                }
-
-                if (value instanceof String[]) {
-                    builder.withArrayClaim(name, (String[]) value);
-                    continue;
-                }
-
-                if (value instanceof Integer[]) {
-                    builder.withArrayClaim(name, (Integer[]) value);
-                    continue;
-                }
-
-                if (value instanceof Long[]) {
-                    builder.withArrayClaim(name, (Long[]) value);
-//                    continue;
-                }
+        final Map<String, Object> privateClaims = info.getPrivateClaims();
+        if (privateClaims != null) {
+            for (Map.Entry<String, Object> entry : privateClaims.entrySet()) {
+                final Object value = entry.getValue();
+                ClaimWriter.of(value).write(builder, entry.getKey(), value);
             }
-        });
+        }
 
-        return builder.sign(InternalUtils.toAlgorithm(signatureAlgorithm, secret));
+        final Algorithm algorithm = getAlgorithm();
+        final String token = builder.sign(algorithm);
+
+        // 以实际签名的kid为准
+        final String kid = algorithm.getSigningKeyId();
+        metrics.onCreated(signatureAlgorithm, kid != null ? kid : info.getKeyId(), System.nanoTime() - start);
+        return token;
+    }
+
+    /**
+     * 批量创建，数量较多时在{@link java.util.concurrent.ForkJoinPool#commonPool()}中并行签名
+     *
+     * @param infos 令牌信息
+     * @return 令牌，顺序与infos的迭代顺序一致
+     */
+    @Override
+    public List<String> createAll(Collection<JwtTokenInfo> infos) {
+        Objects.requireNonNull(infos);
+
+        if (infos.size() < PARALLEL_THRESHOLD) {
+            return JwtTokenFactory.super.createAll(infos);
+        }
+
+        // 在调用线程上准备好Algorithm
+        getAlgorithm();
+
+        return new ArrayList<>(infos).parallelStream()
+                .map(this::create)
+                .collect(Collectors.toList());
+    }
+
+    private Algorithm getAlgorithm() {
+        final JwtKeyProvider keys = keyProvider != null ? keyProvider.snapshot() : null;
+
+        CachedAlgorithm cached = this.algorithm;
+        if (cached == null || cached.keys != keys) {
+            cached = new CachedAlgorithm(keys, InternalUtils.toAlgorithm(signatureAlgorithm, secret, keys));
+            this.algorithm = cached;
+        }
+        return cached.algorithm;
     }
 
     public void setSecret(String secret) {
         this.secret = secret;
+        this.algorithm = null;
     }
 
     public void setSignatureAlgorithm(SignatureAlgorithm signatureAlgorithm) {
         this.signatureAlgorithm = signatureAlgorithm;
+        this.algorithm = null;
+    }
+
+    public void setKeyProvider(JwtKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+        this.algorithm = null;
+    }
+
+    public void setMetrics(JwtMetrics metrics) {
+        this.metrics = metrics != null ? metrics : NopJwtMetrics.INSTANCE;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class CachedAlgorithm {
+        private final JwtKeyProvider keys;
+        private final Algorithm algorithm;
+
+        private CachedAlgorithm(JwtKeyProvider keys, Algorithm algorithm) {
+            this.keys = keys;
+            this.algorithm = algorithm;
+        }
     }
 
 }
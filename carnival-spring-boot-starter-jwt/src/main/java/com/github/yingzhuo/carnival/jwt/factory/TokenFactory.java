@@ -9,6 +9,9 @@
  */
 package com.github.yingzhuo.carnival.jwt.factory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -23,4 +26,18 @@ public interface TokenFactory<S, T> extends Function<S, T> {
         return create(s);
     }
 
+    /**
+     * 批量创建
+     *
+     * @param entities 实体
+     * @return 结果，顺序与entities的迭代顺序一致
+     */
+    public default List<T> createAll(Collection<S> entities) {
+        final List<T> list = new ArrayList<>(entities.size());
+        for (S s : entities) {
+            list.add(create(s));
+        }
+        return list;
+    }
+
 }
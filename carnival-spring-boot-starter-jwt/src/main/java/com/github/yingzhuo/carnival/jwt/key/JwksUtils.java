@@ -0,0 +1,194 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.key;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.*;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地JWKS (RFC 7517) 文档工具
+ * <p>
+ * 支持`kty`为`RSA`与`EC` (P-256、P-384、P-521) 的密钥，含`d`参数时同时解析私钥。
+ * <p>
+ * 密钥可以带有非标准的`nbf`与`exp` (秒)，用于平滑轮换:
+ * <ul>
+ * <li>已过`exp`的密钥被忽略</li>
+ * <li>未到`nbf`的密钥只用于验证，不用于签名</li>
+ * <li>未指定签名密钥时，在当前可用的私钥中选择`nbf`最晚的一个，相同时取靠前的一个</li>
+ * </ul>
+ *
+ * @author 应卓
+ */
+public final class JwksUtils {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private JwksUtils() {
+    }
+
+    public static SimpleJwtKeyProvider read(Resource resource) {
+        return parse(PemUtils.read(resource));
+    }
+
+    public static SimpleJwtKeyProvider read(Resource resource, String signingKeyId) {
+        return parse(PemUtils.read(resource), signingKeyId, System.currentTimeMillis());
+    }
+
+    public static SimpleJwtKeyProvider parse(String json) {
+        return parse(json, null, System.currentTimeMillis());
+    }
+
+    /**
+     * 解析JWKS文档
+     *
+     * @param json         JWKS文档
+     * @param signingKeyId 签名密钥的kid，为null时自动选择
+     * @param now          当前时间 (毫秒)
+     * @return 密钥
+     */
+    public static SimpleJwtKeyProvider parse(String json, String signingKeyId, long now) {
+        final JsonNode keys;
+        try {
+            keys = OBJECT_MAPPER.readTree(json).path("keys");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final SimpleJwtKeyProvider.Builder builder = SimpleJwtKeyProvider.builder();
+        final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        JsonNode signingKey = null;
+        long signingKeyNotBefore = Long.MIN_VALUE;
+
+        for (JsonNode jwk : keys) {
+            final String kid = jwk.hasNonNull("kid") ? jwk.get("kid").asText() : null;
+            final String use = jwk.path("use").asText("sig");
+            if (!"sig".equals(use)) {
+                continue;
+            }
+
+            final long notBefore = jwk.hasNonNull("nbf") ? jwk.get("nbf").asLong() * 1000L : Long.MIN_VALUE;
+            final long expiresAt = jwk.hasNonNull("exp") ? jwk.get("exp").asLong() * 1000L : Long.MAX_VALUE;
+            if (expiresAt <= now) {
+                continue;
+            }
+
+            try {
+                publicKeys.put(kid, toPublicKey(jwk));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalArgumentException("invalid JWK: " + kid, e);
+            }
+
+            if (!jwk.hasNonNull("d")) {
+                continue;
+            }
+
+            if (signingKeyId != null) {
+                if (signingKeyId.equals(kid)) {
+                    signingKey = jwk;
+                }
+            } else if (notBefore <= now && (signingKey == null || notBefore > signingKeyNotBefore)) {
+                signingKey = jwk;
+                signingKeyNotBefore = notBefore;
+            }
+        }
+
+        if (signingKeyId != null && signingKey == null) {
+            throw new IllegalArgumentException("signing key not found: " + signingKeyId);
+        }
+
+        if (signingKey != null) {
+            final String kid = signingKey.hasNonNull("kid") ? signingKey.get("kid").asText() : null;
+            try {
+                builder.privateKey(kid, toPrivateKey(signingKey));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalArgumentException("invalid JWK: " + kid, e);
+            }
+        }
+
+        return builder.publicKeys(publicKeys).build();
+    }
+
+    private static PublicKey toPublicKey(JsonNode jwk) throws GeneralSecurityException {
+        final String kty = jwk.path("kty").asText();
+        switch (kty) {
+            case "RSA":
+                return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(bigInteger(jwk, "n"), bigInteger(jwk, "e")));
+            case "EC":
+                final ECPoint point = new ECPoint(bigInteger(jwk, "x"), bigInteger(jwk, "y"));
+                return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, curve(jwk)));
+            default:
+                throw new IllegalArgumentException("unsupported kty: " + kty);
+        }
+    }
+
+    private static PrivateKey toPrivateKey(JsonNode jwk) throws GeneralSecurityException {
+        final String kty = jwk.path("kty").asText();
+        switch (kty) {
+            case "RSA":
+                // 包含CRT参数时使用CRT形式，签名快数倍
+                if (jwk.hasNonNull("p") && jwk.hasNonNull("q") && jwk.hasNonNull("dp") && jwk.hasNonNull("dq") && jwk.hasNonNull("qi")) {
+                    return KeyFactory.getInstance("RSA").generatePrivate(new RSAPrivateCrtKeySpec(
+                            bigInteger(jwk, "n"), bigInteger(jwk, "e"), bigInteger(jwk, "d"),
+                            bigInteger(jwk, "p"), bigInteger(jwk, "q"),
+                            bigInteger(jwk, "dp"), bigInteger(jwk, "dq"), bigInteger(jwk, "qi")));
+                }
+                return KeyFactory.getInstance("RSA").generatePrivate(new RSAPrivateKeySpec(bigInteger(jwk, "n"), bigInteger(jwk, "d")));
+            case "EC":
+                return KeyFactory.getInstance("EC").generatePrivate(new ECPrivateKeySpec(bigInteger(jwk, "d"), curve(jwk)));
+            default:
+                throw new IllegalArgumentException("unsupported kty: " + kty);
+        }
+    }
+
+    private static ECParameterSpec curve(JsonNode jwk) throws GeneralSecurityException {
+        final String crv = jwk.path("crv").asText();
+        final String name;
+        switch (crv) {
+            case "P-256":
+                name = "secp256r1";
+                break;
+            case "P-384":
+                name = "secp384r1";
+                break;
+            case "P-521":
+                name = "secp521r1";
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported crv: " + crv);
+        }
+
+        final AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(name));
+        return parameters.getParameterSpec(ECParameterSpec.class);
+    }
+
+    private static BigInteger bigInteger(JsonNode jwk, String name) {
+        final JsonNode node = jwk.get(name);
+        if (node == null || node.isNull()) {
+            throw new IllegalArgumentException("missing JWK parameter: " + name);
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(node.asText()));
+    }
+
+}
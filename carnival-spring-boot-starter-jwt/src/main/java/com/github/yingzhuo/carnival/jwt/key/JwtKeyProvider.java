@@ -0,0 +1,57 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.key;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * 非对称算法 (RSA/ECDSA) 的密钥来源
+ * <p>
+ * 验证时按令牌头部的`kid`选取公钥，签名时使用唯一的私钥。
+ *
+ * @author 应卓
+ * @see SimpleJwtKeyProvider
+ * @see ReloadableJwtKeyProvider
+ */
+public interface JwtKeyProvider {
+
+    /**
+     * 获取公钥
+     *
+     * @param keyId 令牌头部的kid，可能为null
+     * @return 公钥，未知的kid返回null
+     */
+    public PublicKey getPublicKey(String keyId);
+
+    /**
+     * 获取签名用私钥
+     *
+     * @return 私钥，仅验证时可为null
+     */
+    public PrivateKey getPrivateKey();
+
+    /**
+     * 获取签名用私钥的kid
+     *
+     * @return kid，可为null
+     */
+    public String getPrivateKeyId();
+
+    /**
+     * 获取当前密钥的不可变快照，签名时私钥与kid须来自同一快照
+     *
+     * @return 快照，密钥不会变化时返回自身
+     */
+    public default JwtKeyProvider snapshot() {
+        return this;
+    }
+
+}
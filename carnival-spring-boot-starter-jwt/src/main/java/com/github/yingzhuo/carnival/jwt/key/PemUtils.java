@@ -0,0 +1,118 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.key;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.spec.KeySpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * PEM工具
+ * <p>
+ * 支持`PUBLIC KEY` (X.509)、`PRIVATE KEY` (PKCS#8) 与`CERTIFICATE`，RSA与EC均可。
+ * PKCS#1 (`RSA PRIVATE KEY`) 等格式请先用`openssl pkcs8 -topk8 -nocrypt`转换。
+ *
+ * @author 应卓
+ */
+public final class PemUtils {
+
+    private static final String[] KEY_ALGORITHMS = {"RSA", "EC"};
+
+    private PemUtils() {
+    }
+
+    public static PublicKey readPublicKey(Resource resource) {
+        return readPublicKey(read(resource));
+    }
+
+    public static PublicKey readPublicKey(String pem) {
+        final String type = getType(pem);
+        final byte[] der = decode(pem);
+
+        if ("CERTIFICATE".equals(type)) {
+            try {
+                return CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(der)).getPublicKey();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+
+        if (!"PUBLIC KEY".equals(type)) {
+            throw new IllegalArgumentException("unsupported PEM type: " + type);
+        }
+
+        return (PublicKey) generate(new X509EncodedKeySpec(der), true);
+    }
+
+    public static PrivateKey readPrivateKey(Resource resource) {
+        return readPrivateKey(read(resource));
+    }
+
+    public static PrivateKey readPrivateKey(String pem) {
+        final String type = getType(pem);
+        if (!"PRIVATE KEY".equals(type)) {
+            throw new IllegalArgumentException("unsupported PEM type: " + type + ", convert it to PKCS#8 first.");
+        }
+        return (PrivateKey) generate(new PKCS8EncodedKeySpec(decode(pem)), false);
+    }
+
+    private static Object generate(KeySpec spec, boolean publicKey) {
+        for (String algorithm : KEY_ALGORITHMS) {
+            try {
+                final KeyFactory kf = KeyFactory.getInstance(algorithm);
+                return publicKey ? kf.generatePublic(spec) : kf.generatePrivate(spec);
+            } catch (GeneralSecurityException e) {
+                // 尝试下一种算法
+            }
+        }
+        throw new IllegalArgumentException("neither RSA nor EC key");
+    }
+
+    private static String getType(String pem) {
+        final int begin = pem.indexOf("-----BEGIN ");
+        final int end = begin < 0 ? -1 : pem.indexOf("-----", begin + 11);
+        if (begin < 0 || end < 0) {
+            throw new IllegalArgumentException("not a PEM document");
+        }
+        return pem.substring(begin + 11, end).trim();
+    }
+
+    private static byte[] decode(String pem) {
+        final int begin = pem.indexOf('\n', pem.indexOf("-----BEGIN "));
+        final int end = pem.indexOf("-----END ");
+        if (begin < 0 || end < 0 || end < begin) {
+            throw new IllegalArgumentException("not a PEM document");
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(begin + 1, end));
+    }
+
+    static String read(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
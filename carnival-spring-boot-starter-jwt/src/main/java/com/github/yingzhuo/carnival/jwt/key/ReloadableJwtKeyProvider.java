@@ -0,0 +1,163 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.key;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可热加载的密钥环 (JWKS文档)
+ * <p>
+ * 定期检查文件的修改时间并重新计算各密钥的有效期 (见{@link JwksUtils})，有变化时整体替换为新的不可变快照。
+ * 读取只有一次volatile读，轮换不会阻塞正在处理的请求。
+ * <p>
+ * 平滑轮换的步骤:
+ * <ol>
+ * <li>把新密钥加入文件，旧密钥继续签名，新旧密钥都可以验证</li>
+ * <li>新密钥开始签名 (设置`nbf`，或者移除旧密钥的`d`)</li>
+ * <li>旧密钥签发的令牌全部过期后，从文件中移除旧密钥 (或者设置`exp`)</li>
+ * </ol>
+ *
+ * @author 应卓
+ */
+@Slf4j
+public class ReloadableJwtKeyProvider implements JwtKeyProvider, InitializingBean, DisposableBean {
+
+    private final Resource resource;
+    private final String signingKeyId;
+    private Duration reloadInterval = Duration.ofMinutes(1L);
+
+    // copy-on-write
+    private volatile SimpleJwtKeyProvider current;
+
+    private long lastModified;
+    private String json;
+    private ScheduledExecutorService scheduler;
+
+    public ReloadableJwtKeyProvider(Resource resource) {
+        this(resource, null);
+    }
+
+    /**
+     * 构造方法，立即加载一次，失败时抛出异常
+     *
+     * @param resource     JWKS文档
+     * @param signingKeyId 签名密钥的kid，为null时按有效期自动选择
+     */
+    public ReloadableJwtKeyProvider(Resource resource, String signingKeyId) {
+        this.resource = Objects.requireNonNull(resource);
+        this.signingKeyId = signingKeyId;
+        this.current = load();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (reloadInterval == null || reloadInterval.isZero() || reloadInterval.isNegative()) {
+            return;
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            val thread = new Thread(r, "jwt-key-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        val millis = reloadInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::reload, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 重新加载，失败时保留原来的密钥
+     */
+    public void reload() {
+        try {
+            val next = load();
+            val prev = this.current;
+
+            if (!sameKeys(prev, next)) {
+                this.current = next;
+                log.info("jwt keys reloaded, kid(s) = {}, signing kid = {}", next.getPublicKeys().keySet(), next.getPrivateKeyId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("failed to reload jwt keys from " + resource, e);
+        }
+    }
+
+    private synchronized SimpleJwtKeyProvider load() {
+        final long lm = lastModified();
+        if (json == null || lm != lastModified || lm == 0L) {
+            this.json = PemUtils.read(resource);
+            this.lastModified = lm;
+        }
+
+        // 文件未变化时也要重新计算，密钥的有效期可能已经变化
+        return JwksUtils.parse(json, signingKeyId, System.currentTimeMillis());
+    }
+
+    private long lastModified() {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // 例如jar包中的资源，每次都重新读取
+            return 0L;
+        }
+    }
+
+    private static boolean sameKeys(SimpleJwtKeyProvider a, SimpleJwtKeyProvider b) {
+        return a.getPublicKeys().equals(b.getPublicKeys())
+                && Objects.equals(a.getPrivateKeyId(), b.getPrivateKeyId())
+                && Objects.equals(a.getPrivateKey(), b.getPrivateKey())
+                && Objects.equals(a.getPublicKey(null), b.getPublicKey(null));
+    }
+
+    @Override
+    public PublicKey getPublicKey(String keyId) {
+        return current.getPublicKey(keyId);
+    }
+
+    @Override
+    public PrivateKey getPrivateKey() {
+        return current.getPrivateKey();
+    }
+
+    @Override
+    public String getPrivateKeyId() {
+        return current.getPrivateKeyId();
+    }
+
+    @Override
+    public JwtKeyProvider snapshot() {
+        return current;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.key;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link JwtKeyProvider}简单实现 (不可变)
+ * <p>
+ * 令牌头部无kid时，使用签名私钥对应的公钥；若只有一个公钥，则使用这个公钥。
+ *
+ * @author 应卓
+ * @see PemUtils
+ * @see JwksUtils
+ */
+public final class SimpleJwtKeyProvider implements JwtKeyProvider {
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final Map<String, PublicKey> publicKeys;
+    private final PublicKey defaultPublicKey;
+    private final PrivateKey privateKey;
+    private final String privateKeyId;
+
+    private SimpleJwtKeyProvider(Map<String, PublicKey> publicKeys, PublicKey defaultPublicKey, PrivateKey privateKey, String privateKeyId) {
+        this.publicKeys = publicKeys;
+        this.defaultPublicKey = defaultPublicKey;
+        this.privateKey = privateKey;
+        this.privateKeyId = privateKeyId;
+    }
+
+    @Override
+    public PublicKey getPublicKey(String keyId) {
+        if (keyId == null) {
+            return defaultPublicKey;
+        }
+        return publicKeys.get(keyId);
+    }
+
+    @Override
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    @Override
+    public String getPrivateKeyId() {
+        return privateKeyId;
+    }
+
+    public Map<String, PublicKey> getPublicKeys() {
+        return publicKeys;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    public static class Builder {
+
+        private final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        private PublicKey defaultPublicKey;
+        private PrivateKey privateKey;
+        private String privateKeyId;
+
+        private Builder() {
+            super();
+        }
+
+        public Builder publicKey(String keyId, PublicKey publicKey) {
+            Objects.requireNonNull(publicKey);
+            publicKeys.put(keyId, publicKey);
+            return this;
+        }
+
+        public Builder publicKeys(Map<String, PublicKey> publicKeys) {
+            publicKeys.forEach(this::publicKey);
+            return this;
+        }
+
+        public Builder defaultPublicKey(PublicKey publicKey) {
+            this.defaultPublicKey = publicKey;
+            return this;
+        }
+
+        public Builder privateKey(String keyId, PrivateKey privateKey) {
+            this.privateKeyId = keyId;
+            this.privateKey = privateKey;
+            return this;
+        }
+
+        public Builder keyPair(String keyId, KeyPair keyPair) {
+            publicKey(keyId, keyPair.getPublic());
+            privateKey(keyId, keyPair.getPrivate());
+            return defaultPublicKey(keyPair.getPublic());
+        }
+
+        public SimpleJwtKeyProvider build() {
+            PublicKey dpk = defaultPublicKey;
+            if (dpk == null && privateKey != null) {
+                dpk = publicKeys.get(privateKeyId);
+            }
+            if (dpk == null && publicKeys.size() == 1) {
+                dpk = publicKeys.values().iterator().next();
+            }
+
+            final Map<String, PublicKey> map = new LinkedHashMap<>(publicKeys);
+            map.remove(null);
+            return new SimpleJwtKeyProvider(Collections.unmodifiableMap(map), dpk, privateKey, privateKeyId);
+        }
+    }
+
+}
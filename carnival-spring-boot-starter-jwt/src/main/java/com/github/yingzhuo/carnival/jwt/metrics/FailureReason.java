@@ -0,0 +1,39 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.metrics;
+
+/**
+ * 验证失败的原因，与{@link com.github.yingzhuo.carnival.jwt.exception}中的异常一一对应
+ *
+ * @author 应卓
+ */
+public enum FailureReason {
+
+    ALGORITHM_MISMATCH("algorithm_mismatch"),
+
+    TOKEN_EXPIRED("token_expired"),
+
+    SIGNATURE_VERIFICATION("signature_verification"),
+
+    INVALID_CLAIM("invalid_claim"),
+
+    DECODE("decode");
+
+    private final String tagValue;
+
+    FailureReason(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.metrics;
+
+import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+
+/**
+ * 令牌签发与验证的度量
+ * <p>
+ * 实现须线程安全，并且足够轻量，每次签发或验证都会调用。
+ *
+ * @author 应卓
+ * @see NopJwtMetrics
+ * @see MicrometerJwtMetrics
+ */
+public interface JwtMetrics {
+
+    /**
+     * 验证失败时，无法确认的kid以此代替
+     */
+    public static final String UNKNOWN_KEY_ID = "unknown";
+
+    /**
+     * 签发成功
+     *
+     * @param algorithm 签名算法
+     * @param keyId     kid，可为null
+     * @param nanos     耗时 (纳秒)
+     */
+    public void onCreated(SignatureAlgorithm algorithm, String keyId, long nanos);
+
+    /**
+     * 验证成功
+     *
+     * @param algorithm 签名算法
+     * @param keyId     kid，可为null
+     * @param nanos     耗时 (纳秒)
+     */
+    public void onVerified(SignatureAlgorithm algorithm, String keyId, long nanos);
+
+    /**
+     * 验证失败
+     *
+     * @param algorithm 签名算法
+     * @param keyId     密钥来源中存在的kid，否则为{@link #UNKNOWN_KEY_ID}
+     * @param reason    原因
+     * @param nanos     耗时 (纳秒)
+     */
+    public void onVerificationFailed(SignatureAlgorithm algorithm, String keyId, FailureReason reason, long nanos);
+
+    /**
+     * 已验证令牌缓存命中或未命中
+     *
+     * @param hit 是否命中
+     */
+    public void onVerifiedCache(boolean hit);
+
+}
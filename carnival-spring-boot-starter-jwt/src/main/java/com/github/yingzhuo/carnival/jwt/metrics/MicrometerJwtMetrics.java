@@ -0,0 +1,174 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.metrics;
+
+import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Micrometer的度量
+ * <p>
+ * 每个(algorithm, kid)组合的全部度量在首次出现时一次性注册，之后每次调用只有一次Map查找，不会创建标签。
+ * 不同kid的数量超过maxKeyIds后统一记为{@code other}。
+ * 验证失败时kid来自未验证的令牌头部，只使用已注册的kid，其余记为{@code unknown}，不占用kid的名额。
+ *
+ * <ul>
+ * <li>{@code carnival.jwt.create} (Timer): algorithm, kid</li>
+ * <li>{@code carnival.jwt.verify} (Timer): algorithm, kid, result (success或{@link FailureReason#getTagValue()})</li>
+ * <li>{@code carnival.jwt.verified.cache} (Counter): result (hit/miss)</li>
+ * </ul>
+ *
+ * @author 应卓
+ */
+public class MicrometerJwtMetrics implements JwtMetrics {
+
+    public static final String CREATE = "carnival.jwt.create";
+    public static final String VERIFY = "carnival.jwt.verify";
+    public static final String VERIFIED_CACHE = "carnival.jwt.verified.cache";
+
+    private static final String NO_KEY_ID = "none";
+    private static final String OTHER_KEY_ID = "other";
+
+    private final MeterRegistry registry;
+    private final boolean histogram;
+    private final int maxKeyIds;
+
+    // 构造后只读
+    private final Map<SignatureAlgorithm, ConcurrentMap<String, KeyMeters>> meters = new EnumMap<>(SignatureAlgorithm.class);
+
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
+
+    public MicrometerJwtMetrics(MeterRegistry registry) {
+        this(registry, false, 16);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param registry  MeterRegistry
+     * @param histogram 成功签发与验证的耗时是否发布直方图
+     * @param maxKeyIds 每种算法最多区分的kid数量
+     */
+    public MicrometerJwtMetrics(MeterRegistry registry, boolean histogram, int maxKeyIds) {
+        this.registry = registry;
+        this.histogram = histogram;
+        this.maxKeyIds = maxKeyIds;
+
+        for (SignatureAlgorithm algorithm : SignatureAlgorithm.values()) {
+            meters.put(algorithm, new ConcurrentHashMap<>());
+        }
+
+        this.cacheHit = Counter.builder(VERIFIED_CACHE).tag("result", "hit").register(registry);
+        this.cacheMiss = Counter.builder(VERIFIED_CACHE).tag("result", "miss").register(registry);
+    }
+
+    /**
+     * 预先注册度量
+     *
+     * @param algorithm 签名算法
+     * @param keyIds    已知的kid
+     */
+    public void preRegister(SignatureAlgorithm algorithm, Collection<String> keyIds) {
+        getMeters(algorithm, null);
+        for (String keyId : keyIds) {
+            getMeters(algorithm, keyId);
+        }
+    }
+
+    @Override
+    public void onCreated(SignatureAlgorithm algorithm, String keyId, long nanos) {
+        getMeters(algorithm, keyId).created.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onVerified(SignatureAlgorithm algorithm, String keyId, long nanos) {
+        getMeters(algorithm, keyId).verified.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onVerificationFailed(SignatureAlgorithm algorithm, String keyId, FailureReason reason, long nanos) {
+        getFailureMeters(algorithm, keyId).failed[reason.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onVerifiedCache(boolean hit) {
+        (hit ? cacheHit : cacheMiss).increment();
+    }
+
+    private KeyMeters getMeters(SignatureAlgorithm algorithm, String keyId) {
+        final ConcurrentMap<String, KeyMeters> map = meters.get(algorithm);
+
+        String key = keyId != null ? keyId : NO_KEY_ID;
+        final KeyMeters km = map.get(key);
+        if (km != null) {
+            return km;
+        }
+
+        if (map.size() >= maxKeyIds) {
+            key = OTHER_KEY_ID;
+        }
+        return map.computeIfAbsent(key, k -> new KeyMeters(algorithm, k));
+    }
+
+    // 失败时不注册新的kid
+    private KeyMeters getFailureMeters(SignatureAlgorithm algorithm, String keyId) {
+        final ConcurrentMap<String, KeyMeters> map = meters.get(algorithm);
+
+        final KeyMeters km = map.get(keyId != null ? keyId : NO_KEY_ID);
+        if (km != null) {
+            return km;
+        }
+        return map.computeIfAbsent(UNKNOWN_KEY_ID, k -> new KeyMeters(algorithm, k));
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private final class KeyMeters {
+        private final Timer created;
+        private final Timer verified;
+        private final Timer[] failed;
+
+        private KeyMeters(SignatureAlgorithm algorithm, String keyId) {
+            this.created = Timer.builder(CREATE)
+                    .tag("algorithm", algorithm.name())
+                    .tag("kid", keyId)
+                    .publishPercentileHistogram(histogram)
+                    .register(registry);
+
+            this.verified = Timer.builder(VERIFY)
+                    .tag("algorithm", algorithm.name())
+                    .tag("kid", keyId)
+                    .tag("result", "success")
+                    .publishPercentileHistogram(histogram)
+                    .register(registry);
+
+            final FailureReason[] reasons = FailureReason.values();
+            this.failed = new Timer[reasons.length];
+            for (FailureReason reason : reasons) {
+                failed[reason.ordinal()] = Timer.builder(VERIFY)
+                        .tag("algorithm", algorithm.name())
+                        .tag("kid", keyId)
+                        .tag("result", reason.getTagValue())
+                        .register(registry);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.metrics;
+
+import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+
+/**
+ * @author 应卓
+ */
+public class NopJwtMetrics implements JwtMetrics {
+
+    public static final NopJwtMetrics INSTANCE = new NopJwtMetrics();
+
+    @Override
+    public void onCreated(SignatureAlgorithm algorithm, String keyId, long nanos) {
+        // NOP
+    }
+
+    @Override
+    public void onVerified(SignatureAlgorithm algorithm, String keyId, long nanos) {
+        // NOP
+    }
+
+    @Override
+    public void onVerificationFailed(SignatureAlgorithm algorithm, String keyId, FailureReason reason, long nanos) {
+        // NOP
+    }
+
+    @Override
+    public void onVerifiedCache(boolean hit) {
+        // NOP
+    }
+
+}
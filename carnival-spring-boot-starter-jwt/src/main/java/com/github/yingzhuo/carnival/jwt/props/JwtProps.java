@@ -16,8 +16,11 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
 
+import java.time.Duration;
+
 @Slf4j
 @Getter
 @Setter
@@ -26,6 +29,10 @@ public class JwtProps implements InitializingBean {
 
     private String secret = Secret.DEFAULT;
     private SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.HMAC512;
+    private Key key = new Key();
+    private VerifiedCache verifiedCache = new VerifiedCache();
+    private Metrics metrics = new Metrics();
+    private Refresh refresh = new Refresh();
 
     @Override
     public void afterPropertiesSet() {
@@ -35,4 +42,58 @@ public class JwtProps implements InitializingBean {
         log.info("carnival.jwt.signature-algorithm = {}", this.signatureAlgorithm);
     }
 
+    /**
+     * RSA/ECDSA密钥，三者可任选
+     */
+    @Getter
+    @Setter
+    public static class Key {
+        private Resource jwksLocation;
+        private Resource publicKeyLocation;
+        private Resource privateKeyLocation;
+        private String keyId;
+
+        // 仅jwks-location，为0时不重新加载
+        private Duration reloadInterval = Duration.ofMinutes(1L);
+
+        public boolean isConfigured() {
+            return jwksLocation != null || publicKeyLocation != null || privateKeyLocation != null;
+        }
+    }
+
+    /**
+     * 已验证令牌缓存
+     */
+    @Getter
+    @Setter
+    public static class VerifiedCache {
+        private boolean enabled = false;
+        private int maximumSize = 10000;
+        private Duration timeToLive = Duration.ofMinutes(10L);
+    }
+
+    /**
+     * Micrometer度量 (需要MeterRegistry)
+     */
+    @Getter
+    @Setter
+    public static class Metrics {
+        private boolean enabled = true;
+        private boolean histogram = false;
+        private int maxKeyIds = 16;
+    }
+
+    /**
+     * 刷新令牌 (需要@EnableJwtTokenFactory)
+     */
+    @Getter
+    @Setter
+    public static class Refresh {
+        private boolean enabled = false;
+        private Duration timeToLive = Duration.ofDays(14L);
+
+        // 仅适用于单实例，集群部署须提供RefreshTokenStore
+        private boolean inMemoryStore = false;
+    }
+
 }
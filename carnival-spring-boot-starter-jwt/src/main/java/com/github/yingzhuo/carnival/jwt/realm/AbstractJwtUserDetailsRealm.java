@@ -14,18 +14,27 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import com.github.yingzhuo.carnival.jwt.claims.ClaimsView;
+import com.github.yingzhuo.carnival.jwt.claims.ClaimsViewDecoder;
 import com.github.yingzhuo.carnival.jwt.exception.*;
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
+import com.github.yingzhuo.carnival.jwt.metrics.FailureReason;
+import com.github.yingzhuo.carnival.jwt.metrics.JwtMetrics;
+import com.github.yingzhuo.carnival.jwt.metrics.NopJwtMetrics;
 import com.github.yingzhuo.carnival.jwt.props.JwtProps;
+import com.github.yingzhuo.carnival.jwt.refresh.RefreshTokenService;
 import com.github.yingzhuo.carnival.jwt.util.InternalUtils;
 import com.github.yingzhuo.carnival.restful.security.realm.UserDetailsRealm;
 import com.github.yingzhuo.carnival.restful.security.token.StringToken;
 import com.github.yingzhuo.carnival.restful.security.token.Token;
 import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.Assert;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -37,9 +46,24 @@ public abstract class AbstractJwtUserDetailsRealm implements UserDetailsRealm, I
     private String secret;
     private SignatureAlgorithm signatureAlgorithm;
 
+    // 线程安全，仅在初始化及密钥轮换时重建
+    private volatile JWTVerifier verifier;
+
+    // 可选，验签通过的令牌
+    private VerifiedTokenCache verifiedTokenCache;
+
+    // 可选，见getDeclaredClaims()
+    private ClaimsViewDecoder claimsViewDecoder;
+
     @Autowired
     private JwtProps jwtProps;
 
+    @Autowired(required = false)
+    private JwtKeyProvider keyProvider;
+
+    @Autowired(required = false)
+    private JwtMetrics metrics = NopJwtMetrics.INSTANCE;
+
     public AbstractJwtUserDetailsRealm() {
         super();
     }
@@ -50,12 +74,59 @@ public abstract class AbstractJwtUserDetailsRealm implements UserDetailsRealm, I
         this.secret = jwtProps.getSecret();
         this.signatureAlgorithm = jwtProps.getSignatureAlgorithm();
 
-        // 检查用户配置
-        Assert.hasText(secret, (String) null);
+        // 检查用户配置，RSA/ECDSA的密钥来自JwtKeyProvider，不需要secret
         Assert.notNull(signatureAlgorithm, (String) null);
-
-        log.info("secret: {}", this.secret);
+        if (isHmac(signatureAlgorithm)) {
+            Assert.hasText(secret, (String) null);
+        }
         log.info("signature-algorithm: {}", this.signatureAlgorithm);
+
+        this.verifier = createVerifier(signatureAlgorithm, secret, keyProvider);
+
+        val declaredClaims = getDeclaredClaims();
+        if (declaredClaims != null) {
+            log.info("declared-claims: {}", (Object) declaredClaims);
+            final String[] claims = Arrays.copyOf(declaredClaims, declaredClaims.length + 1);
+            claims[declaredClaims.length] = RefreshTokenService.FAMILY_CLAIM;
+            this.claimsViewDecoder = new ClaimsViewDecoder(claims);
+        }
+
+        val cacheProps = jwtProps.getVerifiedCache();
+        if (verifiedTokenCache == null && cacheProps.isEnabled()) {
+            this.verifiedTokenCache = new VerifiedTokenCache(cacheProps.getMaximumSize(), cacheProps.getTimeToLive());
+        }
+    }
+
+    /**
+     * 轮换密钥，之后的请求使用新的密钥验证
+     *
+     * @param signatureAlgorithm 签名算法
+     * @param secret             密钥
+     */
+    public synchronized void rotate(SignatureAlgorithm signatureAlgorithm, String secret) {
+        Assert.notNull(signatureAlgorithm, (String) null);
+        if (isHmac(signatureAlgorithm)) {
+            Assert.hasText(secret, (String) null);
+        }
+
+        this.verifier = createVerifier(signatureAlgorithm, secret, keyProvider);
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.secret = secret;
+
+        if (verifiedTokenCache != null) {
+            verifiedTokenCache.invalidateAll();
+        }
+    }
+
+    private static boolean isHmac(SignatureAlgorithm signatureAlgorithm) {
+        return signatureAlgorithm == SignatureAlgorithm.HMAC256
+                || signatureAlgorithm == SignatureAlgorithm.HMAC384
+                || signatureAlgorithm == SignatureAlgorithm.HMAC512;
+    }
+
+    private static JWTVerifier createVerifier(SignatureAlgorithm signatureAlgorithm, String secret, JwtKeyProvider keyProvider) {
+        final Algorithm algorithm = InternalUtils.toAlgorithm(signatureAlgorithm, secret, keyProvider);
+        return JWT.require(algorithm).build();
     }
 
     @Override
@@ -63,21 +134,53 @@ public abstract class AbstractJwtUserDetailsRealm implements UserDetailsRealm, I
 
         if (token instanceof StringToken) {
             final String tokenValue = ((StringToken) token).getValue();
+            final JwtMetrics metrics = this.metrics;
+
+            final VerifiedTokenCache cache = this.verifiedTokenCache;
+            if (cache != null) {
+                final DecodedJWT jwt = cache.get(tokenValue);
 
-            Algorithm algorithm = InternalUtils.toAlgorithm(signatureAlgorithm, secret);
-            JWTVerifier verifier = JWT.require(algorithm).build();
+                // 签名密钥已从密钥环中移除的令牌重新验证
+                if (jwt != null && (keyProvider == null || jwt.getKeyId() == null || keyProvider.getPublicKey(jwt.getKeyId()) != null)) {
+                    metrics.onVerifiedCache(true);
+                    return Optional.ofNullable(getUserDetails(jwt));
+                }
+                metrics.onVerifiedCache(false);
+            }
+
+            final long start = System.nanoTime();
             try {
-                DecodedJWT jwt = verifier.verify(tokenValue);
+                final JWTVerifier verifier = this.verifier;
+                DecodedJWT jwt = claimsViewDecoder != null ?
+                        verifier.verify(claimsViewDecoder.decode(tokenValue)) :
+                        verifier.verify(tokenValue);
+
+                // 刷新令牌不能作为访问令牌使用
+                if (!jwt.getClaim(RefreshTokenService.FAMILY_CLAIM).isNull()) {
+                    throw new com.auth0.jwt.exceptions.InvalidClaimException("A refresh token can't be used as an access token.");
+                }
+
+                metrics.onVerified(signatureAlgorithm, jwt.getKeyId(), System.nanoTime() - start);
+
+                // 验签期间发生密钥轮换时不缓存
+                if (cache != null && verifier == this.verifier) {
+                    cache.put(tokenValue, jwt);
+                }
                 return Optional.ofNullable(getUserDetails(jwt));
             } catch (com.auth0.jwt.exceptions.AlgorithmMismatchException ex) {
+                onVerificationFailed(tokenValue, FailureReason.ALGORITHM_MISMATCH, start);
                 throw new AlgorithmMismatchException(ex.getMessage(), ex);
             } catch (com.auth0.jwt.exceptions.TokenExpiredException ex) {
+                onVerificationFailed(tokenValue, FailureReason.TOKEN_EXPIRED, start);
                 throw new TokenExpiredException(ex.getMessage(), ex);
             } catch (com.auth0.jwt.exceptions.SignatureVerificationException ex) {
+                onVerificationFailed(tokenValue, FailureReason.SIGNATURE_VERIFICATION, start);
                 throw new SignatureVerificationException(ex.getMessage(), ex);
             } catch (com.auth0.jwt.exceptions.InvalidClaimException ex) {
+                onVerificationFailed(tokenValue, FailureReason.INVALID_CLAIM, start);
                 throw new InvalidClaimException(ex.getMessage(), ex);
             } catch (com.auth0.jwt.exceptions.JWTDecodeException ex) {
+                onVerificationFailed(tokenValue, FailureReason.DECODE, start);
                 throw new JwtDecodeException(ex.getMessage(), ex);
             }
         }
@@ -85,14 +188,78 @@ public abstract class AbstractJwtUserDetailsRealm implements UserDetailsRealm, I
         return Optional.empty();
     }
 
+    private void onVerificationFailed(String tokenValue, FailureReason reason, long start) {
+        final long nanos = System.nanoTime() - start;
+        if (!(metrics instanceof NopJwtMetrics)) {
+            // 失败时才需要单独解析kid，令牌头部不可信，只使用密钥来源中存在的kid
+            String keyId = InternalUtils.getKeyId(tokenValue);
+            if (keyId != null && (keyProvider == null || keyProvider.getPublicKey(keyId) == null)) {
+                keyId = JwtMetrics.UNKNOWN_KEY_ID;
+            }
+            metrics.onVerificationFailed(signatureAlgorithm, keyId, reason, nanos);
+        }
+    }
+
     protected abstract UserDetails getUserDetails(DecodedJWT jwt);
 
-    public void setSecret(String secret) {
-        this.secret = secret;
+    /**
+     * 声明{@link #getUserDetails(DecodedJWT)}需要的私有Claim
+     * <p>
+     * 返回非null时以流式解析载荷，只保留声明的Claim与注册Claim，其余Claim读取时总是{@code isNull()}。
+     * 适用于载荷较大 (例如大量角色、内嵌用户资料) 而只需要其中少数几项的情况。
+     *
+     * @return 私有Claim名称，默认为null，即完整解析
+     * @see ClaimsView
+     */
+    protected String[] getDeclaredClaims() {
+        return null;
     }
 
-    public void setSignatureAlgorithm(SignatureAlgorithm signatureAlgorithm) {
-        this.signatureAlgorithm = signatureAlgorithm;
+    /**
+     * 设置密钥，初始化之后等同于{@link #rotate(SignatureAlgorithm, String)}
+     *
+     * @param secret 密钥
+     */
+    public synchronized void setSecret(String secret) {
+        if (verifier != null) {
+            rotate(signatureAlgorithm, secret);
+        } else {
+            this.secret = secret;
+        }
+    }
+
+    /**
+     * 设置签名算法，初始化之后等同于{@link #rotate(SignatureAlgorithm, String)}。
+     * 需要同时更换密钥时 (如改为HMAC) 应直接调用rotate。
+     *
+     * @param signatureAlgorithm 签名算法
+     */
+    public synchronized void setSignatureAlgorithm(SignatureAlgorithm signatureAlgorithm) {
+        if (verifier != null) {
+            rotate(signatureAlgorithm, secret);
+        } else {
+            this.signatureAlgorithm = signatureAlgorithm;
+        }
+    }
+
+    public void setJwtProps(JwtProps jwtProps) {
+        this.jwtProps = jwtProps;
+    }
+
+    public void setKeyProvider(JwtKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+    }
+
+    public void setMetrics(JwtMetrics metrics) {
+        this.metrics = metrics != null ? metrics : NopJwtMetrics.INSTANCE;
+    }
+
+    public VerifiedTokenCache getVerifiedTokenCache() {
+        return verifiedTokenCache;
+    }
+
+    public void setVerifiedTokenCache(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
 }
@@ -0,0 +1,110 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.realm;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验证令牌缓存 (线程安全)
+ * <p>
+ * 以原始令牌为键，缓存验签通过的{@link DecodedJWT}，同一令牌再次出现时跳过解码与验签。
+ * 基于Caffeine，容量已满时按访问频率淘汰。
+ * 缓存项的存活时间不超过timeToLive，也不超过令牌的{@code exp}。
+ *
+ * @author 应卓
+ */
+public final class VerifiedTokenCache {
+
+    private final Cache<String, DecodedJWT> cache;
+
+    public VerifiedTokenCache(int maximumSize, Duration timeToLive) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new JwtExpiry(timeToLive.toNanos()))
+                .build();
+    }
+
+    /**
+     * 读
+     *
+     * @param token 原始令牌
+     * @return 验签通过的令牌，未命中或已过期时返回null
+     */
+    public DecodedJWT get(String token) {
+        return cache.getIfPresent(token);
+    }
+
+    /**
+     * 写
+     *
+     * @param token 原始令牌
+     * @param jwt   验签通过的令牌
+     */
+    public void put(String token, DecodedJWT jwt) {
+        final Date exp = jwt.getExpiresAt();
+        if (exp != null && exp.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        cache.put(token, jwt);
+    }
+
+    /**
+     * 清空 (密钥轮换时调用)
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, cache.estimatedSize());
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class JwtExpiry implements Expiry<String, DecodedJWT> {
+
+        private final long timeToLiveNanos;
+
+        private JwtExpiry(long timeToLiveNanos) {
+            this.timeToLiveNanos = timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String token, DecodedJWT jwt, long currentTime) {
+            final Date exp = jwt.getExpiresAt();
+            if (exp == null) {
+                return timeToLiveNanos;
+            }
+            final long remaining = TimeUnit.MILLISECONDS.toNanos(exp.getTime() - System.currentTimeMillis());
+            return Math.max(0L, Math.min(timeToLiveNanos, remaining));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, DecodedJWT jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, DecodedJWT jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.refresh;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于内存的刷新令牌存储 (单实例部署或测试使用)
+ * <p>
+ * 每个令牌族是一个不可变的小对象，轮换时以CAS整体替换，不使用锁。
+ * 被撤销的令牌族保留到原本的过期时间，期间再次出示仍然可以识别。
+ *
+ * @author 应卓
+ */
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    // 每创建这么多个令牌族清理一次过期项
+    private static final int PURGE_INTERVAL = 4096;
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+    private final AtomicInteger createCount = new AtomicInteger();
+
+    @Override
+    public void create(String familyId, String tokenId, long expiresAt) {
+        families.put(familyId, new Family(tokenId, expiresAt, false));
+
+        if (createCount.incrementAndGet() % PURGE_INTERVAL == 0) {
+            purgeExpired();
+        }
+    }
+
+    @Override
+    public RotationResult rotate(String familyId, String tokenId, String nextTokenId, long expiresAt) {
+        for (; ; ) {
+            final Family family = families.get(familyId);
+
+            if (family == null || family.expiresAt <= System.currentTimeMillis()) {
+                return RotationResult.NOT_FOUND;
+            }
+
+            if (family.revoked) {
+                return RotationResult.REVOKED;
+            }
+
+            if (!family.tokenId.equals(tokenId)) {
+                if (families.replace(familyId, family, new Family(family.tokenId, family.expiresAt, true))) {
+                    return RotationResult.REUSED;
+                }
+                continue;
+            }
+
+            if (families.replace(familyId, family, new Family(nextTokenId, expiresAt, false))) {
+                return RotationResult.ROTATED;
+            }
+        }
+    }
+
+    @Override
+    public void revoke(String familyId) {
+        families.computeIfPresent(familyId, (k, f) -> new Family(f.tokenId, f.expiresAt, true));
+    }
+
+    /**
+     * 清理过期的令牌族
+     */
+    public void purgeExpired() {
+        final long now = System.currentTimeMillis();
+        families.values().removeIf(f -> f.expiresAt <= now);
+    }
+
+    public int size() {
+        return families.size();
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    // 不覆盖equals，ConcurrentMap#replace按引用比较
+    private static final class Family {
+        private final String tokenId;
+        private final long expiresAt;
+        private final boolean revoked;
+
+        private Family(String tokenId, long expiresAt, boolean revoked) {
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+            this.revoked = revoked;
+        }
+    }
+
+}
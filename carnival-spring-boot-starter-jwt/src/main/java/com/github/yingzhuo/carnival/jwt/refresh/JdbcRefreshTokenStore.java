@@ -0,0 +1,178 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.refresh;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * 基于数据库表的刷新令牌存储 (集群部署使用)
+ *
+ * <pre>
+ * CREATE TABLE carnival_refresh_token (
+ *     family_id  VARCHAR(64) NOT NULL,
+ *     token_id   VARCHAR(64) NOT NULL,
+ *     expires_at BIGINT      NOT NULL,
+ *     revoked    INT         NOT NULL,
+ *     PRIMARY KEY (family_id)
+ * );
+ * </pre>
+ * <p>
+ * 轮换是一条带条件的UPDATE，以token_id作比较，多个实例同时出示同一个令牌时只有一个能够成功。
+ * 过期时间使用各实例的本地时钟，实例之间的时钟偏差应远小于刷新令牌的有效期。
+ *
+ * @author 应卓
+ */
+public class JdbcRefreshTokenStore implements RefreshTokenStore {
+
+    private final DataSource dataSource;
+    private final String insertSql;
+    private final String rotateSql;
+    private final String selectSql;
+    private final String reuseSql;
+    private final String revokeSql;
+    private final String purgeSql;
+
+    public JdbcRefreshTokenStore(DataSource dataSource) {
+        this(dataSource, "carnival_refresh_token");
+    }
+
+    public JdbcRefreshTokenStore(DataSource dataSource, String tableName) {
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.insertSql = "INSERT INTO " + tableName + " (family_id, token_id, expires_at, revoked) VALUES (?, ?, ?, 0)";
+        this.rotateSql = "UPDATE " + tableName + " SET token_id = ?, expires_at = ? WHERE family_id = ? AND token_id = ? AND revoked = 0 AND expires_at > ?";
+        this.selectSql = "SELECT token_id, expires_at, revoked FROM " + tableName + " WHERE family_id = ?";
+        this.reuseSql = "UPDATE " + tableName + " SET revoked = 1 WHERE family_id = ? AND token_id = ? AND revoked = 0";
+        this.revokeSql = "UPDATE " + tableName + " SET revoked = 1 WHERE family_id = ?";
+        this.purgeSql = "DELETE FROM " + tableName + " WHERE expires_at <= ?";
+    }
+
+    @Override
+    public void create(String familyId, String tokenId, long expiresAt) {
+        try {
+            update(insertSql, familyId, tokenId, expiresAt);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public RotationResult rotate(String familyId, String tokenId, String nextTokenId, long expiresAt) {
+        try {
+            for (; ; ) {
+                if (update(rotateSql, nextTokenId, expiresAt, familyId, tokenId, System.currentTimeMillis()) == 1) {
+                    return RotationResult.ROTATED;
+                }
+
+                // 轮换失败，查明原因
+                final Family family = select(familyId);
+
+                if (family == null || family.expiresAt <= System.currentTimeMillis()) {
+                    return RotationResult.NOT_FOUND;
+                }
+
+                if (family.revoked) {
+                    return RotationResult.REVOKED;
+                }
+
+                if (!family.tokenId.equals(tokenId)) {
+                    // 以当前的token_id作比较，其间又被轮换时重新判断
+                    if (update(reuseSql, familyId, family.tokenId) == 1) {
+                        return RotationResult.REUSED;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void revoke(String familyId) {
+        try {
+            update(revokeSql, familyId);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 清理过期的令牌族
+     *
+     * @return 清理的行数
+     */
+    public int purgeExpired() {
+        try {
+            return update(purgeSql, System.currentTimeMillis());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private Family select(String familyId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(selectSql)) {
+            statement.setString(1, familyId);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new Family(rs.getString(1), rs.getLong(2), rs.getInt(3) != 0);
+            }
+        }
+    }
+
+    private int update(String sql, Object... params) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                final int rows = statement.executeUpdate();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                return rows;
+            } catch (SQLException e) {
+                if (!connection.getAutoCommit()) {
+                    rollback(connection, e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static void rollback(Connection connection, SQLException cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class Family {
+        private final String tokenId;
+        private final long expiresAt;
+        private final boolean revoked;
+
+        private Family(String tokenId, long expiresAt, boolean revoked) {
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+            this.revoked = revoked;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.refresh;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 刷新令牌
+ *
+ * @author 应卓
+ */
+@Getter
+@ToString(exclude = "token")
+@AllArgsConstructor
+public final class RefreshToken implements Serializable {
+
+    private static final long serialVersionUID = -4190362786430816339L;
+
+    private final String token;
+    private final String subject;
+    private final String familyId;
+    private final Date expiresAt;
+
+}
@@ -0,0 +1,180 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.refresh;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import com.github.yingzhuo.carnival.jwt.exception.*;
+import com.github.yingzhuo.carnival.jwt.factory.JwtTokenFactory;
+import com.github.yingzhuo.carnival.jwt.factory.JwtTokenInfo;
+import com.github.yingzhuo.carnival.restful.security.blacklist.NopTokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.exception.TokenBlacklistedException;
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * 刷新令牌服务
+ * <p>
+ * 每次登录创建一个令牌族，族内的刷新令牌只能使用一次，使用后换发新的刷新令牌。
+ * 已经使用过的刷新令牌再次出示时视为泄露，撤销整个令牌族，合法持有者与攻击者都需要重新登录。
+ * <p>
+ * 刷新令牌由{@link JwtTokenFactory}签发，带有私有Claim {@value #FAMILY_CLAIM}，
+ * {@link com.github.yingzhuo.carnival.jwt.realm.AbstractJwtUserDetailsRealm}不接受它作为访问令牌。
+ *
+ * @author 应卓
+ */
+@Slf4j
+public class RefreshTokenService {
+
+    /**
+     * 令牌族ID
+     */
+    public static final String FAMILY_CLAIM = "rt_fid";
+
+    // 每个线程一个实例，避免争用
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private final JwtTokenFactory tokenFactory;
+    private final JWTVerifier verifier;
+    private final RefreshTokenStore store;
+    private TokenBlackList tokenBlackList = new NopTokenBlackList();
+    private Duration timeToLive = Duration.ofDays(14L);
+
+    /**
+     * 构造方法
+     *
+     * @param tokenFactory 签发刷新令牌
+     * @param algorithm    验证刷新令牌，须与tokenFactory一致
+     * @param store        存储
+     */
+    public RefreshTokenService(JwtTokenFactory tokenFactory, Algorithm algorithm, RefreshTokenStore store) {
+        this.tokenFactory = Objects.requireNonNull(tokenFactory);
+        this.verifier = JWT.require(algorithm).build();
+        this.store = Objects.requireNonNull(store);
+    }
+
+    /**
+     * 登录时创建新的令牌族
+     *
+     * @param subject 用户
+     * @return 刷新令牌
+     */
+    public RefreshToken issue(String subject) {
+        final String familyId = randomId();
+        final String tokenId = randomId();
+        final long expiresAt = System.currentTimeMillis() + timeToLive.toMillis();
+
+        store.create(familyId, tokenId, expiresAt);
+        return create(subject, familyId, tokenId, expiresAt);
+    }
+
+    /**
+     * 轮换
+     *
+     * @param refreshToken 出示的刷新令牌
+     * @return 新的刷新令牌，调用者据此再签发访问令牌
+     * @throws RefreshTokenReusedException 令牌已被使用过，令牌族已被撤销
+     * @throws InvalidTokenException       令牌无效、过期、已撤销
+     */
+    public RefreshToken rotate(String refreshToken) {
+        // 先验签，未通过验证的令牌不会查询黑名单
+        final DecodedJWT jwt = verify(refreshToken);
+
+        final StringToken token = StringToken.of(refreshToken);
+        if (tokenBlackList.isBlacklisted(token)) {
+            throw new TokenBlacklistedException();
+        }
+
+        final String familyId = jwt.getClaim(FAMILY_CLAIM).asString();
+        final String tokenId = jwt.getId();
+        if (familyId == null || tokenId == null) {
+            throw new InvalidTokenException("not a refresh token");
+        }
+
+        final String nextTokenId = randomId();
+        final long expiresAt = System.currentTimeMillis() + timeToLive.toMillis();
+
+        switch (store.rotate(familyId, tokenId, nextTokenId, expiresAt)) {
+            case ROTATED:
+                return create(jwt.getSubject(), familyId, nextTokenId, expiresAt);
+            case REUSED:
+                log.warn("refresh token reused, family {} of subject {} revoked", familyId, jwt.getSubject());
+                tokenBlackList.save(token);
+                throw new RefreshTokenReusedException("refresh token reused");
+            case REVOKED:
+                tokenBlackList.save(token);
+                throw new InvalidTokenException("refresh token revoked");
+            default:
+                throw new InvalidTokenException("refresh token not found");
+        }
+    }
+
+    /**
+     * 撤销令牌族 (例如退出登录、修改密码)
+     *
+     * @param familyId 令牌族ID
+     */
+    public void revoke(String familyId) {
+        store.revoke(familyId);
+    }
+
+    private DecodedJWT verify(String refreshToken) {
+        try {
+            return verifier.verify(refreshToken);
+        } catch (com.auth0.jwt.exceptions.AlgorithmMismatchException ex) {
+            throw new AlgorithmMismatchException(ex.getMessage(), ex);
+        } catch (com.auth0.jwt.exceptions.TokenExpiredException ex) {
+            throw new TokenExpiredException(ex.getMessage(), ex);
+        } catch (com.auth0.jwt.exceptions.SignatureVerificationException ex) {
+            throw new SignatureVerificationException(ex.getMessage(), ex);
+        } catch (com.auth0.jwt.exceptions.InvalidClaimException ex) {
+            throw new InvalidClaimException(ex.getMessage(), ex);
+        } catch (com.auth0.jwt.exceptions.JWTDecodeException ex) {
+            throw new JwtDecodeException(ex.getMessage(), ex);
+        }
+    }
+
+    private RefreshToken create(String subject, String familyId, String tokenId, long expiresAt) {
+        final Date exp = new Date(expiresAt);
+        final String token = tokenFactory.create(JwtTokenInfo.builder()
+                .subject(subject)
+                .jwtId(tokenId)
+                .expiresAt(exp)
+                .issuedAtNow()
+                .putPrivateClaim(FAMILY_CLAIM, familyId)
+                .build());
+        return new RefreshToken(token, subject, familyId, exp);
+    }
+
+    // ID用于撤销并会出现在日志与存储中，不能被预测
+    private static String randomId() {
+        final byte[] bytes = new byte[16];
+        RANDOM.get().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public void setTokenBlackList(TokenBlackList tokenBlackList) {
+        this.tokenBlackList = tokenBlackList != null ? tokenBlackList : new NopTokenBlackList();
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.refresh;
+
+/**
+ * 刷新令牌存储
+ * <p>
+ * 每个令牌族只记录当前有效的令牌ID (jti)，实现须保证{@link #rotate(String, String, String, long)}的原子性。
+ *
+ * @author 应卓
+ * @see InMemoryRefreshTokenStore
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * 创建令牌族
+     *
+     * @param familyId  令牌族ID
+     * @param tokenId   第一个令牌的ID
+     * @param expiresAt 过期时间 (毫秒)
+     */
+    public void create(String familyId, String tokenId, long expiresAt);
+
+    /**
+     * 轮换 (原子操作)
+     * <p>
+     * tokenId与当前令牌ID相同时替换为nextTokenId，否则撤销整个令牌族并返回{@link RotationResult#REUSED}。
+     *
+     * @param familyId    令牌族ID
+     * @param tokenId     出示的令牌ID
+     * @param nextTokenId 新令牌ID
+     * @param expiresAt   新的过期时间 (毫秒)
+     * @return 结果
+     */
+    public RotationResult rotate(String familyId, String tokenId, String nextTokenId, long expiresAt);
+
+    /**
+     * 撤销令牌族
+     *
+     * @param familyId 令牌族ID
+     */
+    public void revoke(String familyId);
+
+}
@@ -0,0 +1,40 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.refresh;
+
+/**
+ * 轮换结果
+ *
+ * @author 应卓
+ * @see RefreshTokenStore#rotate(String, String, String, long)
+ */
+public enum RotationResult {
+
+    /**
+     * 成功
+     */
+    ROTATED,
+
+    /**
+     * 令牌已经被使用过，令牌族已被撤销
+     */
+    REUSED,
+
+    /**
+     * 令牌族此前已被撤销
+     */
+    REVOKED,
+
+    /**
+     * 令牌族不存在或已过期
+     */
+    NOT_FOUND
+
+}
@@ -9,15 +9,19 @@
  */
 package com.github.yingzhuo.carnival.jwt.token;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.github.yingzhuo.carnival.restful.security.token.ExpirableToken;
 import com.github.yingzhuo.carnival.restful.security.token.StringToken;
 import lombok.val;
 
 import java.io.Serializable;
+import java.util.Date;
 
 /**
  * @author 应卓
  */
-public class JwtToken extends StringToken implements Serializable {
+public class JwtToken extends StringToken implements ExpirableToken, Serializable {
 
     private static final long serialVersionUID = 7058971979786348534L;
 
@@ -45,4 +49,13 @@ public class JwtToken extends StringToken implements Serializable {
         return signature;
     }
 
+    @Override
+    public Date getExpiresAt() {
+        try {
+            return JWT.decode(getValue()).getExpiresAt();
+        } catch (JWTDecodeException e) {
+            return null;
+        }
+    }
+
 }
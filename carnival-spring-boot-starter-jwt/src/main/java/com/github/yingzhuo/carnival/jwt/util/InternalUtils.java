@@ -10,13 +10,21 @@
 package com.github.yingzhuo.carnival.jwt.util;
 
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import com.github.yingzhuo.carnival.jwt.key.JwtKeyProvider;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
 import java.util.Objects;
 
 /**
@@ -26,53 +34,125 @@ import java.util.Objects;
  */
 public final class InternalUtils {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private InternalUtils() {
     }
 
     public static Algorithm toAlgorithm(SignatureAlgorithm signatureAlgorithm, String secret) {
-        Objects.requireNonNull(secret);
+        return toAlgorithm(signatureAlgorithm, secret, null);
+    }
+
+    /**
+     * 创建算法
+     *
+     * @param signatureAlgorithm 签名算法
+     * @param secret             密钥 (HMAC)
+     * @param keyProvider        密钥来源 (RSA/ECDSA)，验证时按令牌头部的kid选取公钥
+     * @return 算法 (线程安全)
+     */
+    public static Algorithm toAlgorithm(SignatureAlgorithm signatureAlgorithm, String secret, JwtKeyProvider keyProvider) {
         Objects.requireNonNull(signatureAlgorithm);
 
-        KeyPairGenerator generator;
-        KeyPair keyPair;
-        RSAPublicKey publicKey;
-        RSAPrivateKey privateKey;
+        switch (signatureAlgorithm) {
+            case HMAC256:
+                return Algorithm.HMAC256(Objects.requireNonNull(secret));
+            case HMAC384:
+                return Algorithm.HMAC384(Objects.requireNonNull(secret));
+            case HMAC512:
+                return Algorithm.HMAC512(Objects.requireNonNull(secret));
+            case RSA256:
+                return Algorithm.RSA256(new RSAKeyProviderAdapter(requireKeyProvider(signatureAlgorithm, keyProvider)));
+            case RSA384:
+                return Algorithm.RSA384(new RSAKeyProviderAdapter(requireKeyProvider(signatureAlgorithm, keyProvider)));
+            case RSA512:
+                return Algorithm.RSA512(new RSAKeyProviderAdapter(requireKeyProvider(signatureAlgorithm, keyProvider)));
+            case ES256:
+                return Algorithm.ECDSA256(new ECDSAKeyProviderAdapter(requireKeyProvider(signatureAlgorithm, keyProvider)));
+            case ES384:
+                return Algorithm.ECDSA384(new ECDSAKeyProviderAdapter(requireKeyProvider(signatureAlgorithm, keyProvider)));
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * 只解析头部，取得kid
+     *
+     * @param token 令牌
+     * @return kid，令牌格式错误或没有kid时返回null
+     */
+    public static String getKeyId(String token) {
+        final int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
 
         try {
-            switch (signatureAlgorithm) {
-                case HMAC256:
-                    return Algorithm.HMAC256(secret);
-                case HMAC384:
-                    return Algorithm.HMAC384(secret);
-                case HMAC512:
-                    return Algorithm.HMAC512(secret);
-                case RSA256:
-                    generator = KeyPairGenerator.getInstance("RSA");
-                    generator.initialize(1024);
-                    keyPair = generator.generateKeyPair();
-                    publicKey = (RSAPublicKey) keyPair.getPublic();
-                    privateKey = (RSAPrivateKey) keyPair.getPrivate();
-                    return Algorithm.RSA256(publicKey, privateKey);
-                case RSA384:
-                    generator = KeyPairGenerator.getInstance("RSA");
-                    generator.initialize(1024);
-                    keyPair = generator.generateKeyPair();
-                    publicKey = (RSAPublicKey) keyPair.getPublic();
-                    privateKey = (RSAPrivateKey) keyPair.getPrivate();
-                    return Algorithm.RSA384(publicKey, privateKey);
-                case RSA512:
-                    generator = KeyPairGenerator.getInstance("RSA");
-                    generator.initialize(1024);
-                    keyPair = generator.generateKeyPair();
-                    publicKey = (RSAPublicKey) keyPair.getPublic();
-                    privateKey = (RSAPrivateKey) keyPair.getPrivate();
-                    return Algorithm.RSA512(publicKey, privateKey);
-                default:
-                    throw new IllegalArgumentException();
-            }
-        } catch (NoSuchAlgorithmException e) {
+            final JsonNode kid = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(token.substring(0, dot))).get("kid");
+            return kid != null && kid.isTextual() ? kid.asText() : null;
+        } catch (IOException | IllegalArgumentException e) {
             return null;
         }
     }
 
+    private static JwtKeyProvider requireKeyProvider(SignatureAlgorithm signatureAlgorithm, JwtKeyProvider keyProvider) {
+        if (keyProvider == null) {
+            throw new IllegalStateException(signatureAlgorithm + " requires a JwtKeyProvider (carnival.jwt.key.*).");
+        }
+        return keyProvider;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class RSAKeyProviderAdapter implements RSAKeyProvider {
+        private final JwtKeyProvider keyProvider;
+
+        private RSAKeyProviderAdapter(JwtKeyProvider keyProvider) {
+            this.keyProvider = keyProvider;
+        }
+
+        @Override
+        public RSAPublicKey getPublicKeyById(String keyId) {
+            final PublicKey key = keyProvider.getPublicKey(keyId);
+            return key instanceof RSAPublicKey ? (RSAPublicKey) key : null;
+        }
+
+        @Override
+        public RSAPrivateKey getPrivateKey() {
+            final PrivateKey key = keyProvider.getPrivateKey();
+            return key instanceof RSAPrivateKey ? (RSAPrivateKey) key : null;
+        }
+
+        @Override
+        public String getPrivateKeyId() {
+            return keyProvider.getPrivateKeyId();
+        }
+    }
+
+    private static final class ECDSAKeyProviderAdapter implements ECDSAKeyProvider {
+        private final JwtKeyProvider keyProvider;
+
+        private ECDSAKeyProviderAdapter(JwtKeyProvider keyProvider) {
+            this.keyProvider = keyProvider;
+        }
+
+        @Override
+        public ECPublicKey getPublicKeyById(String keyId) {
+            final PublicKey key = keyProvider.getPublicKey(keyId);
+            return key instanceof ECPublicKey ? (ECPublicKey) key : null;
+        }
+
+        @Override
+        public ECPrivateKey getPrivateKey() {
+            final PrivateKey key = keyProvider.getPrivateKey();
+            return key instanceof ECPrivateKey ? (ECPrivateKey) key : null;
+        }
+
+        @Override
+        public String getPrivateKeyId() {
+            return keyProvider.getPrivateKeyId();
+        }
+    }
+
 }
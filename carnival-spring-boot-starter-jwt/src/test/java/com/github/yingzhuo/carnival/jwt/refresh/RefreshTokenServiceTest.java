@@ -0,0 +1,141 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.jwt.refresh;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.github.yingzhuo.carnival.jwt.SignatureAlgorithm;
+import com.github.yingzhuo.carnival.jwt.exception.InvalidTokenException;
+import com.github.yingzhuo.carnival.jwt.exception.RefreshTokenReusedException;
+import com.github.yingzhuo.carnival.jwt.factory.DefaultJwtTokenFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class RefreshTokenServiceTest {
+
+    private static final String SECRET = "refresh-token-service-test";
+
+    private final InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore();
+    private final RefreshTokenService service = newService(store);
+
+    @Test
+    public void rotated() {
+        final RefreshToken first = service.issue("user");
+        final RefreshToken second = service.rotate(first.getToken());
+        final RefreshToken third = service.rotate(second.getToken());
+
+        assertNotEquals(first.getToken(), second.getToken());
+        assertEquals("user", third.getSubject());
+        assertEquals(first.getFamilyId(), second.getFamilyId());
+        assertEquals(first.getFamilyId(), third.getFamilyId());
+    }
+
+    @Test
+    public void reusedRevokesFamily() {
+        final RefreshToken first = service.issue("user");
+        final RefreshToken second = service.rotate(first.getToken());
+
+        assertFailure(RefreshTokenReusedException.class, first.getToken());
+
+        // 合法持有者手中的最新令牌同样失效
+        assertFailure(InvalidTokenException.class, second.getToken());
+    }
+
+    @Test
+    public void revoked() {
+        final RefreshToken token = service.issue("user");
+        service.revoke(token.getFamilyId());
+
+        assertFailure(InvalidTokenException.class, token.getToken());
+    }
+
+    @Test
+    public void notFound() {
+        final RefreshToken token = newService(new InMemoryRefreshTokenStore()).issue("user");
+
+        assertFailure(InvalidTokenException.class, token.getToken());
+    }
+
+    @Test
+    public void expiredFamily() {
+        store.create("family", "token", System.currentTimeMillis() - 1L);
+
+        assertEquals(RotationResult.NOT_FOUND, store.rotate("family", "token", "next", System.currentTimeMillis() + 60_000L));
+    }
+
+    @Test
+    public void concurrentRetry() throws Exception {
+        final int threads = 8;
+        final RefreshToken token = service.issue("user");
+
+        // 客户端重试或令牌被窃取: 同一个令牌同时出示多次
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<RefreshToken>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return service.rotate(token.getToken());
+                }));
+            }
+            start.countDown();
+
+            final List<RefreshToken> rotated = new ArrayList<>();
+            int reused = 0;
+            for (Future<RefreshToken> future : futures) {
+                try {
+                    rotated.add(future.get(10L, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    // 第一个失败者撤销令牌族，其余的看到的是已撤销
+                    assertTrue(e.getCause() instanceof InvalidTokenException);
+                    if (e.getCause() instanceof RefreshTokenReusedException) {
+                        reused++;
+                    }
+                }
+            }
+
+            assertEquals(1, rotated.size());
+            assertEquals(1, reused);
+            assertFailure(InvalidTokenException.class, rotated.get(0).getToken());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertFailure(Class<? extends InvalidTokenException> expected, String token) {
+        try {
+            service.rotate(token);
+            fail("rotated: " + token);
+        } catch (InvalidTokenException e) {
+            assertEquals(expected, e.getClass());
+        }
+    }
+
+    private static RefreshTokenService newService(RefreshTokenStore store) {
+        final DefaultJwtTokenFactory factory = new DefaultJwtTokenFactory();
+        factory.setSecret(SECRET);
+        factory.setSignatureAlgorithm(SignatureAlgorithm.HMAC256);
+        return new RefreshTokenService(factory, Algorithm.HMAC256(SECRET), store);
+    }
+
+}
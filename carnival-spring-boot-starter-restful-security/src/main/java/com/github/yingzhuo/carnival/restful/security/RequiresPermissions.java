@@ -39,6 +39,11 @@ public @interface RequiresPermissions {
         public void authenticate(UserDetails userDetails, RequiresPermissions annotation) throws RestfulSecurityException {
             CheckUtils.check(annotation);
         }
+
+        @Override
+        public void prepare(RequiresPermissions annotation) {
+            CheckUtils.prepare(annotation);
+        }
     }
 
 }
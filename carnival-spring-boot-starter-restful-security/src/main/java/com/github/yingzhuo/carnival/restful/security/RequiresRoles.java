@@ -39,6 +39,11 @@ public @interface RequiresRoles {
         public void authenticate(UserDetails userDetails, RequiresRoles annotation) throws RestfulSecurityException {
             CheckUtils.check(annotation);
         }
+
+        @Override
+        public void prepare(RequiresRoles annotation) {
+            CheckUtils.prepare(annotation);
+        }
     }
 
 }
@@ -21,4 +21,13 @@ public interface AuthenticationComponent<A extends Annotation> {
 
     public void authenticate(UserDetails userDetails, A annotation) throws RestfulSecurityException;
 
+    /**
+     * 启动时预编译安全计划时调用，可在此预先处理元注释
+     *
+     * @param annotation 元注释
+     */
+    public default void prepare(A annotation) {
+        // NOP
+    }
+
 }
@@ -10,35 +10,98 @@
 package com.github.yingzhuo.carnival.restful.security.autoconfig;
 
 import com.github.yingzhuo.carnival.restful.security.*;
+import com.github.yingzhuo.carnival.restful.security.blacklist.BloomFilterTokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.blacklist.CacheEvictingTokenBlackList;
 import com.github.yingzhuo.carnival.restful.security.blacklist.NopTokenBlackList;
 import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackListStore;
 import com.github.yingzhuo.carnival.restful.security.cache.CacheManager;
+import com.github.yingzhuo.carnival.restful.security.cache.CaffeineCacheManager;
 import com.github.yingzhuo.carnival.restful.security.cache.NopCacheManager;
+import com.github.yingzhuo.carnival.restful.security.cache.TwoTierCacheManager;
+import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityContextTaskDecorator;
 import com.github.yingzhuo.carnival.restful.security.voter.FirstSuccessUserDetailsVoter;
 import com.github.yingzhuo.carnival.restful.security.voter.UserDetailsVoter;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
 
 /**
  * @author 应卓
  */
 @Slf4j
 @ConditionalOnWebApplication
+@EnableConfigurationProperties(RestfulSecurityAutoConfig.Props.class)
 public class RestfulSecurityAutoConfig {
 
     @ConditionalOnMissingBean
     @Bean(name = "restfulSecurityCacheManager")
-    public CacheManager cacheManager() {
-        return new NopCacheManager();
+    public CacheManager cacheManager(Props props) {
+        val cache = props.getCache();
+
+        if (!cache.isEnabled()) {
+            return new NopCacheManager();
+        }
+
+        if (!ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", null)) {
+            throw new IllegalStateException("carnival.restful-security.cache.enabled is true, but caffeine is not in classpath.");
+        }
+
+        if (cache.getRedis().isEnabled()) {
+            throw new IllegalStateException("carnival.restful-security.cache.redis.enabled is true, but spring-data-redis is not in classpath.");
+        }
+
+        log.info("carnival.restful-security.cache.max-size = {}", cache.getMaxSize());
+        log.info("carnival.restful-security.cache.time-to-live = {}", cache.getTimeToLive());
+        return new CaffeineCacheManager(cache.getMaxSize(), cache.getTimeToLive());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public TokenBlackList tokenBlackList() {
-        return new NopTokenBlackList();
+    public TokenBlackList tokenBlackList(ObjectProvider<TokenBlackListStore> storeProvider, ObjectProvider<CacheManager> cacheManagerProvider, Props props) {
+        val tokenBlackList = createTokenBlackList(storeProvider.getIfAvailable(), props);
+
+        // 两级缓存: 令牌加入黑名单时通知所有节点删除缓存
+        val cacheManager = cacheManagerProvider.getIfAvailable();
+        if (ClassUtils.isPresent("org.springframework.data.redis.connection.RedisConnectionFactory", null) && cacheManager instanceof TwoTierCacheManager) {
+            return new CacheEvictingTokenBlackList(tokenBlackList, cacheManager);
+        }
+        return tokenBlackList;
+    }
+
+    private TokenBlackList createTokenBlackList(TokenBlackListStore store, Props props) {
+        if (store == null) {
+            return new NopTokenBlackList();
+        }
+
+        val blacklist = props.getBlacklist();
+        log.info("carnival.restful-security.blacklist.expected-revocations = {}", blacklist.getExpectedRevocations());
+        log.info("carnival.restful-security.blacklist.token-time-to-live = {}", blacklist.getTokenTimeToLive());
+
+        val tokenBlackList = new BloomFilterTokenBlackList(
+                store,
+                blacklist.getExpectedRevocations(),
+                blacklist.getTokenTimeToLive(),
+                blacklist.getFalsePositiveProbability(),
+                blacklist.getBuckets());
+        tokenBlackList.setSyncInterval(blacklist.getSyncInterval());
+        tokenBlackList.setSyncOverlap(blacklist.getSyncOverlap());
+        return tokenBlackList;
     }
 
     @Bean
@@ -47,6 +110,12 @@ public class RestfulSecurityAutoConfig {
         return new FirstSuccessUserDetailsVoter();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public TaskDecorator restfulSecurityContextTaskDecorator() {
+        return new RestfulSecurityContextTaskDecorator();
+    }
+
     // -----------------------------------------------------------------------------------------------------------------
 
     @Bean
@@ -85,4 +154,72 @@ public class RestfulSecurityAutoConfig {
         return new RequiresPermissions.AuthComponent();
     }
 
+    // -----------------------------------------------------------------------------------------------------------------
+
+    @ConditionalOnClass(name = "org.springframework.data.redis.connection.RedisConnectionFactory")
+    @ConditionalOnProperty(prefix = "carnival.restful-security.cache", name = {"enabled", "redis.enabled"}, havingValue = "true")
+    static class TwoTierCacheManagerConfig {
+
+        @ConditionalOnMissingBean(CacheManager.class)
+        @Bean(name = "restfulSecurityCacheManager")
+        public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory, Props props) {
+            val cache = props.getCache();
+            log.info("carnival.restful-security.cache.max-size = {}", cache.getMaxSize());
+            log.info("carnival.restful-security.cache.time-to-live = {}", cache.getTimeToLive());
+
+            val cacheManager = new TwoTierCacheManager(connectionFactory, cache.getMaxSize(), cache.getTimeToLive());
+            if (cache.getRedis().getKeyPrefix() != null) {
+                cacheManager.setRedisKeyPrefix(cache.getRedis().getKeyPrefix());
+            }
+            if (cache.getRedis().getChannel() != null) {
+                cacheManager.setChannel(cache.getRedis().getChannel());
+            }
+            return cacheManager;
+        }
+    }
+
+    @Getter
+    @Setter
+    @ConfigurationProperties(prefix = "carnival.restful-security")
+    static class Props {
+        private Cache cache = new Cache();
+        private Blacklist blacklist = new Blacklist();
+        private Chain chain = new Chain();
+
+        @Getter
+        @Setter
+        static class Cache {
+            private boolean enabled = false;
+            private long maxSize = 10000L;
+            private Duration timeToLive = Duration.ofMinutes(10L);
+            private Redis redis = new Redis();
+        }
+
+        @Getter
+        @Setter
+        static class Redis {
+            private boolean enabled = false;
+            private String keyPrefix = null;
+            private String channel = null;
+        }
+
+        @Getter
+        @Setter
+        static class Blacklist {
+            private long expectedRevocations = 10000L;
+            private Duration tokenTimeToLive = Duration.ofHours(2L);
+            private double falsePositiveProbability = 0.0001D;
+            private int buckets = 4;
+            private Duration syncInterval = Duration.ofMinutes(1L);
+            private Duration syncOverlap = Duration.ofSeconds(30L);
+        }
+
+        @Getter
+        @Setter
+        static class Chain {
+            private int parallelism = 0;
+            private int queueCapacity = 256;
+        }
+    }
+
 }
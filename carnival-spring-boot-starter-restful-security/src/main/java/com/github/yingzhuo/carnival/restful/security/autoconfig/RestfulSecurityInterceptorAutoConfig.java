@@ -14,6 +14,7 @@ import com.github.yingzhuo.carnival.restful.security.EnableRestfulSecurity;
 import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
 import com.github.yingzhuo.carnival.restful.security.cache.CacheManager;
 import com.github.yingzhuo.carnival.restful.security.chain.ChainNode;
+import com.github.yingzhuo.carnival.restful.security.core.AbstractRestfulSecurityInterceptor;
 import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityChainInterceptor;
 import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityInterceptor;
 import com.github.yingzhuo.carnival.restful.security.mvc.RestfulSecurityHandlerMethodArgumentResolver;
@@ -22,25 +23,34 @@ import com.github.yingzhuo.carnival.restful.security.parser.TokenParser;
 import com.github.yingzhuo.carnival.restful.security.realm.UserDetailsRealm;
 import com.github.yingzhuo.carnival.restful.security.voter.UserDetailsVoter;
 import lombok.val;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.OrderComparator;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author 应卓
  */
 @ConditionalOnWebApplication
 @AutoConfigureAfter(RestfulSecurityAutoConfig.class)
-public class RestfulSecurityInterceptorAutoConfig implements WebMvcConfigurer {
+public class RestfulSecurityInterceptorAutoConfig implements WebMvcConfigurer, SmartInitializingSingleton, DisposableBean {
 
     @Autowired
     private List<TokenParser> tokenParserList;
@@ -60,6 +70,15 @@ public class RestfulSecurityInterceptorAutoConfig implements WebMvcConfigurer {
     @Autowired
     private UserDetailsVoter userDetailsVoter;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private RestfulSecurityAutoConfig.Props props;
+
+    private AbstractRestfulSecurityInterceptor interceptor;
+    private ExecutorService chainExecutorService;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
 
@@ -79,8 +98,10 @@ public class RestfulSecurityInterceptorAutoConfig implements WebMvcConfigurer {
             interceptor.setUserDetailsVoter(userDetailsVoter);
             interceptor.setCacheManager(cacheManager);
             interceptor.setChainNodes(getChainNodes());
+            interceptor.setExecutorService(getChainExecutorService());
             interceptor.setAuthenticationStrategy(authenticationStrategy);
             registry.addInterceptor(interceptor).addPathPatterns("/", "/**").order(interceptorOrder);
+            this.interceptor = interceptor;
 
         } else {
             val interceptor = new RestfulSecurityInterceptor();
@@ -91,9 +112,52 @@ public class RestfulSecurityInterceptorAutoConfig implements WebMvcConfigurer {
             interceptor.setCacheManager(cacheManager);
             interceptor.setAuthenticationStrategy(authenticationStrategy);
             registry.addInterceptor(interceptor).addPathPatterns("/", "/**").order(interceptorOrder);
+            this.interceptor = interceptor;
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // 启动时预编译安全计划，避免首批请求时反射
+        if (interceptor != null) {
+            for (RequestMappingHandlerMapping mapping : applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+                interceptor.compile(mapping.getHandlerMethods().values());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (chainExecutorService != null) {
+            chainExecutorService.shutdown();
         }
     }
 
+    private ExecutorService getChainExecutorService() {
+        val chain = props.getChain();
+        if (chain.getParallelism() <= 0) {
+            return null;
+        }
+
+        val counter = new AtomicInteger();
+
+        // 队列满时由请求线程自己执行，不会拒绝
+        this.chainExecutorService = new ThreadPoolExecutor(
+                chain.getParallelism(),
+                chain.getParallelism(),
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(chain.getQueueCapacity()),
+                r -> {
+                    val thread = new Thread(r, "restful-security-chain-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        return chainExecutorService;
+    }
+
     private List<ChainNode> getChainNodes() {
         this.userDetailsRealmList.sort(OrderComparator.INSTANCE);
         this.tokenParserList.sort(OrderComparator.INSTANCE);
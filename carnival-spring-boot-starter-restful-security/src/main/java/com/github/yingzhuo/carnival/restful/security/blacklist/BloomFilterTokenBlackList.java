@@ -0,0 +1,209 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.blacklist;
+
+import com.github.yingzhuo.carnival.restful.security.token.ByteArrayToken;
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import com.github.yingzhuo.carnival.restful.security.token.UsernamePasswordToken;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 布隆过滤器前置的黑名单
+ * <p>
+ * 内存中维护若干个按时间分桶、轮转的布隆过滤器，覆盖至少一个令牌存活期。
+ * 仅当过滤器命中时才查询权威存储，绝大多数未被拉黑的令牌只需几次哈希探测。
+ * 其他节点拉黑的令牌通过定期同步加入过滤器，同步间隔即为跨节点的最大延迟。
+ * 每次同步都从上次同步时间往前回溯{@link #setSyncOverlap(Duration)}，
+ * 以免漏掉时钟落后的节点写入、或在上次查询之后才提交的记录。
+ *
+ * @author 应卓
+ * @see TokenBlackListStore
+ */
+@Slf4j
+public class BloomFilterTokenBlackList implements TokenBlackList, InitializingBean, DisposableBean {
+
+    private final TokenBlackListStore store;
+    private final long expectedRevocations;
+    private final double falsePositiveProbability;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final long timeToLiveMillis;
+
+    // copy-on-write, 下标0为当前桶
+    private volatile BloomFilter<Token>[] buckets;
+
+    private Duration syncInterval = Duration.ofMinutes(1L);
+    private Duration syncOverlap = Duration.ofSeconds(30L);
+    private ScheduledExecutorService scheduler;
+    private long lastSyncTime;
+
+    /**
+     * 构造方法
+     *
+     * @param store                    权威存储
+     * @param expectedRevocations      一个令牌存活期内预计拉黑的令牌数
+     * @param tokenTimeToLive          令牌存活期
+     * @param falsePositiveProbability 误判率
+     * @param bucketCount              分桶数 (至少为2)
+     */
+    public BloomFilterTokenBlackList(TokenBlackListStore store, long expectedRevocations, Duration tokenTimeToLive, double falsePositiveProbability, int bucketCount) {
+        if (bucketCount < 2) {
+            throw new IllegalArgumentException("bucketCount must be at least 2");
+        }
+
+        this.store = Objects.requireNonNull(store);
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bucketCount = bucketCount;
+        this.timeToLiveMillis = tokenTimeToLive.toMillis();
+        this.bucketMillis = Math.max(1L, timeToLiveMillis / (bucketCount - 1));
+        this.buckets = newBuckets();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            val thread = new Thread(r, "token-blacklist-bloom-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleAtFixedRate(this::rotate, bucketMillis, bucketMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sync, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void save(Token token) {
+        store.save(token);
+        buckets[0].put(token);
+    }
+
+    @Override
+    public boolean isBlacklisted(Token token) {
+        for (BloomFilter<Token> bucket : buckets) {
+            if (bucket.mightContain(token)) {
+                return store.contains(token);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 丢弃最旧的桶，新建当前桶
+     */
+    public synchronized void rotate() {
+        val current = buckets;
+        @SuppressWarnings("unchecked") final BloomFilter<Token>[] next = new BloomFilter[bucketCount];
+        next[0] = newBucket();
+        System.arraycopy(current, 0, next, 1, bucketCount - 1);
+        this.buckets = next;
+    }
+
+    /**
+     * 从权威存储重建全部过滤器
+     */
+    public synchronized void rebuild() {
+        val now = System.currentTimeMillis();
+        val next = newBuckets();
+        for (Token token : store.findSince(now - timeToLiveMillis)) {
+            next[0].put(token);
+        }
+        this.buckets = next;
+        this.lastSyncTime = now;
+    }
+
+    /**
+     * 将上次同步以来其他节点拉黑的令牌加入当前桶
+     */
+    public synchronized void sync() {
+        try {
+            val now = System.currentTimeMillis();
+            val current = buckets[0];
+            for (Token token : store.findSince(lastSyncTime - syncOverlap.toMillis())) {
+                current.put(token);
+            }
+            this.lastSyncTime = now;
+        } catch (Exception e) {
+            log.warn("failed to sync token blacklist", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BloomFilter<Token>[] newBuckets() {
+        final BloomFilter<Token>[] array = new BloomFilter[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            array[i] = newBucket();
+        }
+        return array;
+    }
+
+    private BloomFilter<Token> newBucket() {
+        return BloomFilter.create(TokenFunnel.INSTANCE, expectedRevocations, falsePositiveProbability);
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * 设置同步时的回溯时长，应覆盖节点间的时钟偏差与存储的提交延迟
+     *
+     * @param syncOverlap 回溯时长
+     */
+    public void setSyncOverlap(Duration syncOverlap) {
+        this.syncOverlap = Objects.requireNonNull(syncOverlap);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private enum TokenFunnel implements Funnel<Token> {
+
+        INSTANCE;
+
+        @Override
+        public void funnel(Token token, PrimitiveSink into) {
+            if (token instanceof StringToken) {
+                into.putString(((StringToken) token).getValue(), StandardCharsets.UTF_8);
+            } else if (token instanceof ByteArrayToken) {
+                into.putBytes(((ByteArrayToken) token).getData());
+            } else if (token instanceof UsernamePasswordToken) {
+                val upt = (UsernamePasswordToken) token;
+                into.putString(String.valueOf(upt.getUsername()), StandardCharsets.UTF_8);
+                into.putString(String.valueOf(upt.getPassword()), StandardCharsets.UTF_8);
+            } else {
+                into.putInt(token.hashCode());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.blacklist;
+
+import com.github.yingzhuo.carnival.restful.security.cache.CacheManager;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Objects;
+
+/**
+ * 令牌加入黑名单时同时删除其缓存的UserDetails
+ * <p>
+ * 被包装的黑名单的{@link InitializingBean}与{@link DisposableBean}回调由本类转发，
+ * 因此被包装的对象不应再注册为Spring Bean。存在{@code TwoTierCacheManager}时，自动配置的黑名单已被包装。
+ *
+ * @author 应卓
+ * @see com.github.yingzhuo.carnival.restful.security.cache.TwoTierCacheManager
+ */
+public class CacheEvictingTokenBlackList implements TokenBlackList, InitializingBean, DisposableBean {
+
+    private final TokenBlackList delegate;
+    private final CacheManager cacheManager;
+
+    public CacheEvictingTokenBlackList(TokenBlackList delegate, CacheManager cacheManager) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.cacheManager = Objects.requireNonNull(cacheManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (delegate instanceof InitializingBean) {
+            ((InitializingBean) delegate).afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean) {
+            ((DisposableBean) delegate).destroy();
+        }
+    }
+
+    @Override
+    public void save(Token token) {
+        delegate.save(token);
+        cacheManager.evictUserDetails(token);
+    }
+
+    @Override
+    public boolean isBlacklisted(Token token) {
+        return delegate.isBlacklisted(token);
+    }
+
+}
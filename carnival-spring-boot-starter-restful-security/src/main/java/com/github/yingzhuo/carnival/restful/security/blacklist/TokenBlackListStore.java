@@ -0,0 +1,40 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.blacklist;
+
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+
+import java.util.Collection;
+
+/**
+ * 黑名单权威存储 (如数据库、Redis)
+ *
+ * @author 应卓
+ * @see BloomFilterTokenBlackList
+ */
+public interface TokenBlackListStore {
+
+    public void save(Token token);
+
+    public boolean contains(Token token);
+
+    /**
+     * 查询某时间点之后加入黑名单的令牌，用于重建/同步布隆过滤器
+     * <p>
+     * 时间戳为写入时存储记录的时间 (如数据库的{@code CURRENT_TIMESTAMP})，而非查询节点的本地时钟。
+     * 调用方会按{@link BloomFilterTokenBlackList#setSyncOverlap(java.time.Duration)}回溯，
+     * 同一令牌被重复返回是无害的。
+     *
+     * @param timestamp 时间点 (毫秒)
+     * @return 令牌
+     */
+    public Collection<Token> findSince(long timestamp);
+
+}
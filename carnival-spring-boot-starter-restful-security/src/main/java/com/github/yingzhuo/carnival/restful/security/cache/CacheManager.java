@@ -25,4 +25,9 @@ public interface CacheManager {
     // 写
     public void saveUserDetails(Token token, UserDetails userDetails);
 
+    // 删
+    public default void evictUserDetails(Token token) {
+        // NOP
+    }
+
 }
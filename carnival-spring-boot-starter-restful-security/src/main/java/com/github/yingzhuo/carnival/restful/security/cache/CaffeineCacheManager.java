@@ -0,0 +1,114 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.yingzhuo.carnival.restful.security.token.ExpirableToken;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Caffeine的本地缓存
+ * <p>
+ * 缓存项的存活时间不超过timeToLive，如果令牌实现了{@link ExpirableToken}，也不超过令牌本身的过期时间。
+ *
+ * @author 应卓
+ */
+public class CaffeineCacheManager implements CacheManager {
+
+    private final Cache<Token, UserDetails> cache;
+
+    public CaffeineCacheManager(long maximumSize, Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(timeToLive.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<UserDetails> getUserDetails(Token token) {
+        return Optional.ofNullable(cache.getIfPresent(token));
+    }
+
+    @Override
+    public void saveUserDetails(Token token, UserDetails userDetails) {
+        cache.put(token, userDetails);
+    }
+
+    @Override
+    public void evictUserDetails(Token token) {
+        cache.invalidate(token);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中/未命中/驱逐等统计数据
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 计算缓存项存活时间，不超过令牌自身的过期时间
+     */
+    static long timeToLiveNanos(Token token, long timeToLiveNanos) {
+        if (token instanceof ExpirableToken) {
+            final Date expiresAt = ((ExpirableToken) token).getExpiresAt();
+            if (expiresAt != null) {
+                final long remaining = TimeUnit.MILLISECONDS.toNanos(expiresAt.getTime() - System.currentTimeMillis());
+                return Math.max(0L, Math.min(timeToLiveNanos, remaining));
+            }
+        }
+        return timeToLiveNanos;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class TokenExpiry implements Expiry<Token, UserDetails> {
+
+        private final long timeToLiveNanos;
+
+        private TokenExpiry(long timeToLiveNanos) {
+            this.timeToLiveNanos = timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Token token, UserDetails userDetails, long currentTime) {
+            return timeToLiveNanos(token, timeToLiveNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(Token token, UserDetails userDetails, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, userDetails, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Token token, UserDetails userDetails, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
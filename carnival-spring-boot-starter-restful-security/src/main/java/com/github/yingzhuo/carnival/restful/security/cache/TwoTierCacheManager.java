@@ -0,0 +1,360 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 两级缓存 (本地Caffeine + 共享Redis)
+ * <p>
+ * 删除缓存项时通过Redis发布/订阅通知所有节点删除本地缓存。
+ * <p>
+ * 本地缓存以令牌本身为键，仅在访问Redis及发送删除通知时计算令牌摘要。
+ * 另维护摘要到令牌的索引，收到删除通知时按摘要直接删除本地缓存项，本节点发出的通知将被忽略。
+ * <p>
+ * 从Redis读取到写入本地缓存之间可能恰好收到删除通知，因此每次删除都递增该摘要的版本号 (按摘要哈希分段)，
+ * 写入本地缓存后版本号有变化时撤销写入，避免旧的UserDetails重新进入本地缓存。
+ *
+ * @author 应卓
+ * @see com.github.yingzhuo.carnival.restful.security.blacklist.CacheEvictingTokenBlackList
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener, InitializingBean, DisposableBean {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);        // 程序不会运行到此处
+        }
+    });
+
+    // 原子地读取并删除用户索引
+    private static final RedisScript<List> POP_MEMBERS = new DefaultRedisScript<>(
+            "local m = redis.call('SMEMBERS', KEYS[1]); redis.call('DEL', KEYS[1]); return m", List.class);
+
+    // 版本号分段数，须为2的幂
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Cache<Token, Entry> nearCache;
+    private final Map<String, Token> nearCacheIndex = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long timeToLiveNanos;
+    private final RedisConnectionFactory connectionFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, UserDetails> userDetailsRedisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+    private String redisKeyPrefix = TwoTierCacheManager.class.getName() + "-";
+    private String channel = TwoTierCacheManager.class.getName();
+
+    public TwoTierCacheManager(RedisConnectionFactory connectionFactory, long maximumSize, Duration timeToLive) {
+        this(connectionFactory, new StringRedisTemplate(connectionFactory), newUserDetailsRedisTemplate(connectionFactory), maximumSize, timeToLive);
+    }
+
+    // 测试时可传入桩
+    TwoTierCacheManager(RedisConnectionFactory connectionFactory,
+                        StringRedisTemplate stringRedisTemplate,
+                        RedisTemplate<String, UserDetails> userDetailsRedisTemplate,
+                        long maximumSize,
+                        Duration timeToLive) {
+        this.connectionFactory = connectionFactory;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry())
+                .writer(new IndexWriter(nearCacheIndex))
+                .recordStats()
+                .build();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.userDetailsRedisTemplate = userDetailsRedisTemplate;
+    }
+
+    private static RedisTemplate<String, UserDetails> newUserDetailsRedisTemplate(RedisConnectionFactory connectionFactory) {
+        val template = new RedisTemplate<String, UserDetails>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new JdkSerializationRedisSerializer(TwoTierCacheManager.class.getClassLoader()));
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(connectionFactory);
+        this.listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        this.listenerContainer.afterPropertiesSet();
+        this.listenerContainer.start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Override
+    public Optional<UserDetails> getUserDetails(Token token) {
+        val entry = nearCache.getIfPresent(token);
+
+        if (entry != null) {
+            return Optional.of(entry.userDetails);
+        }
+
+        val key = toKey(token);
+        val stripe = stripe(key);
+        val version = versions.get(stripe);
+        val userDetails = userDetailsRedisTemplate.opsForValue().get(redisKeyPrefix + key);
+        if (userDetails != null) {
+            val ttl = CaffeineCacheManager.timeToLiveNanos(token, timeToLiveNanos);
+            if (ttl > 0L) {
+                val newEntry = new Entry(key, userDetails, ttl);
+                nearCache.put(token, newEntry);
+
+                // 读取Redis之后收到过删除通知，撤销写入
+                if (versions.get(stripe) != version) {
+                    nearCache.asMap().remove(token, newEntry);
+                }
+            }
+        }
+        return Optional.ofNullable(userDetails);
+    }
+
+    @Override
+    public void saveUserDetails(Token token, UserDetails userDetails) {
+        val ttl = CaffeineCacheManager.timeToLiveNanos(token, timeToLiveNanos);
+        val ttlMillis = TimeUnit.NANOSECONDS.toMillis(ttl);
+
+        if (ttlMillis <= 0L) {
+            return;
+        }
+
+        val key = toKey(token);
+        nearCache.put(token, new Entry(key, userDetails, ttl));
+        userDetailsRedisTemplate.opsForValue().set(redisKeyPrefix + key, userDetails, ttlMillis, TimeUnit.MILLISECONDS);
+
+        if (userDetails.getId() != null) {
+            val indexKey = getUserIndexKey(userDetails.getId());
+            stringRedisTemplate.opsForSet().add(indexKey, key);
+            stringRedisTemplate.expire(indexKey, TimeUnit.NANOSECONDS.toMillis(timeToLiveNanos), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void evictUserDetails(Token token) {
+        val key = toKey(token);
+
+        // 先删除Redis，之后从Redis读取的请求不会再得到旧值
+        userDetailsRedisTemplate.delete(redisKeyPrefix + key);
+        versions.incrementAndGet(stripe(key));
+        nearCache.invalidate(token);
+        publish(Collections.singletonList(key));
+    }
+
+    /**
+     * 删除某用户的所有缓存项 (如用户角色变更时)
+     *
+     * @param userId 用户ID
+     * @see UserDetails#getId()
+     */
+    public void evictUser(Object userId) {
+        @SuppressWarnings("unchecked") final List<String> keys =
+                stringRedisTemplate.execute(POP_MEMBERS, Collections.singletonList(getUserIndexKey(userId)));
+
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        for (String key : keys) {
+            userDetailsRedisTemplate.delete(redisKeyPrefix + key);
+        }
+        invalidateNearCache(keys);
+        publish(keys);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        val body = new String(message.getBody(), StandardCharsets.UTF_8);
+        val separator = body.indexOf(':');
+
+        // 本节点发出的通知，本地缓存已删除
+        if (separator == nodeId.length() && body.startsWith(nodeId)) {
+            return;
+        }
+
+        log.debug("evict: {}", body);
+        int start = separator + 1;
+        while (start < body.length()) {
+            int end = body.indexOf(',', start);
+            if (end < 0) {
+                end = body.length();
+            }
+            invalidateNearCache(body.substring(start, end));
+            start = end + 1;
+        }
+    }
+
+    // 通知格式: 节点ID:摘要1,摘要2...
+    private void publish(Collection<String> keys) {
+        stringRedisTemplate.convertAndSend(channel, nodeId + ":" + String.join(",", keys));
+    }
+
+    private void invalidateNearCache(Collection<String> keys) {
+        for (String key : keys) {
+            invalidateNearCache(key);
+        }
+    }
+
+    private void invalidateNearCache(String key) {
+        versions.incrementAndGet(stripe(key));
+        val token = nearCacheIndex.get(key);
+        if (token != null) {
+            nearCache.invalidate(token);
+        }
+    }
+
+    /**
+     * 本地缓存命中/未命中/驱逐等统计数据
+     */
+    public CacheStats getStats() {
+        return nearCache.stats();
+    }
+
+    /**
+     * 令牌摘要，避免令牌原文出现在Redis中
+     */
+    protected String toKey(Token token) {
+        final byte[] data;
+        if (token instanceof StringToken) {
+            data = ((StringToken) token).getValue().getBytes(StandardCharsets.UTF_8);
+        } else {
+            data = SerializationUtils.serialize(token);
+        }
+
+        val digest = SHA_256.get().digest(data);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static int stripe(String key) {
+        return key.hashCode() & (VERSION_STRIPES - 1);
+    }
+
+    private String getUserIndexKey(Object userId) {
+        return redisKeyPrefix + "user-" + userId;
+    }
+
+    public void setRedisKeyPrefix(String redisKeyPrefix) {
+        this.redisKeyPrefix = redisKeyPrefix;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class Entry {
+        private final String key;
+        private final UserDetails userDetails;
+        private final long timeToLiveNanos;
+
+        private Entry(String key, UserDetails userDetails, long timeToLiveNanos) {
+            this.key = key;
+            this.userDetails = userDetails;
+            this.timeToLiveNanos = timeToLiveNanos;
+        }
+    }
+
+    // 与本地缓存同步维护摘要索引
+    private static final class IndexWriter implements CacheWriter<Token, Entry> {
+
+        private final Map<String, Token> index;
+
+        private IndexWriter(Map<String, Token> index) {
+            this.index = index;
+        }
+
+        @Override
+        public void write(Token token, Entry entry) {
+            index.put(entry.key, token);
+        }
+
+        @Override
+        public void delete(Token token, Entry entry, RemovalCause cause) {
+            if (entry != null) {
+                index.remove(entry.key, token);
+            }
+        }
+    }
+
+    private static final class EntryExpiry implements Expiry<Token, Entry> {
+
+        @Override
+        public long expireAfterCreate(Token key, Entry entry, long currentTime) {
+            return entry.timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Token key, Entry entry, long currentTime, long currentDuration) {
+            return entry.timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterRead(Token key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
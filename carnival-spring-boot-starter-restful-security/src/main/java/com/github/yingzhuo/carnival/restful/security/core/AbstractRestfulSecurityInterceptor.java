@@ -0,0 +1,128 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.core;
+
+import com.github.yingzhuo.carnival.restful.security.AuthenticationStrategy;
+import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.cache.CacheManager;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.i18n.FixedLocaleResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author 应卓
+ */
+public abstract class AbstractRestfulSecurityInterceptor implements HandlerInterceptor {
+
+    private final Map<Method, SecurityPlan> plans = new ConcurrentHashMap<>();
+
+    private CacheManager cacheManager;
+    private LocaleResolver localeResolver = new FixedLocaleResolver();
+    private AuthenticationStrategy authenticationStrategy = AuthenticationStrategy.ONLY_ANNOTATED;
+    private TokenBlackList tokenBlackList;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        RestfulSecurityContext.clean();
+
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        final SecurityPlan plan = getSecurityPlan((HandlerMethod) handler);
+
+        if (plan.isIgnored()) {
+            RestfulSecurityContext.setIgnored(true);
+            return true;
+        }
+
+        if (!plan.isAuthenticationRequired()) {
+            return true;
+        }
+
+        authenticate(request, response);
+
+        plan.check(RestfulSecurityContext.getUserDetails().orElse(null));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RestfulSecurityContext.clean();
+    }
+
+    /**
+     * 认证，并将令牌与用户实体保存到{@link RestfulSecurityContext}中
+     */
+    protected abstract void authenticate(HttpServletRequest request, HttpServletResponse response);
+
+    /**
+     * 预编译安全计划 (启动时调用)
+     *
+     * @param handlerMethods 所有HandlerMethod
+     */
+    public void compile(Collection<HandlerMethod> handlerMethods) {
+        for (HandlerMethod hm : handlerMethods) {
+            plans.put(hm.getMethod(), SecurityPlan.compile(hm, authenticationStrategy));
+        }
+    }
+
+    protected final SecurityPlan getSecurityPlan(HandlerMethod handlerMethod) {
+        final SecurityPlan plan = plans.get(handlerMethod.getMethod());
+        if (plan != null) {
+            return plan;
+        }
+
+        // 启动后才注册的HandlerMethod
+        return plans.computeIfAbsent(handlerMethod.getMethod(), m -> SecurityPlan.compile(handlerMethod, authenticationStrategy));
+    }
+
+    public CacheManager getCacheManager() {
+        return cacheManager;
+    }
+
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public LocaleResolver getLocaleResolver() {
+        return localeResolver;
+    }
+
+    public void setLocaleResolver(LocaleResolver localeResolver) {
+        this.localeResolver = localeResolver;
+    }
+
+    public AuthenticationStrategy getAuthenticationStrategy() {
+        return authenticationStrategy;
+    }
+
+    public void setAuthenticationStrategy(AuthenticationStrategy authenticationStrategy) {
+        this.authenticationStrategy = authenticationStrategy;
+    }
+
+    public TokenBlackList getTokenBlackList() {
+        return tokenBlackList;
+    }
+
+    public void setTokenBlackList(TokenBlackList tokenBlackList) {
+        this.tokenBlackList = tokenBlackList;
+    }
+
+}
@@ -14,11 +14,15 @@ import com.github.yingzhuo.carnival.restful.security.exception.AuthenticationExc
 import com.github.yingzhuo.carnival.restful.security.exception.AuthorizationException;
 import com.github.yingzhuo.carnival.restful.security.exception.UserDetailsExpiredException;
 import com.github.yingzhuo.carnival.restful.security.exception.UserDetailsLockedException;
+import com.github.yingzhuo.carnival.restful.security.userdetails.AuthorityRegistry;
 import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
 import lombok.val;
 import org.springframework.util.StringUtils;
 
-import java.util.*;
+import java.lang.annotation.Annotation;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * 元注释检查工具 (内部工具)
@@ -27,9 +31,45 @@ import java.util.*;
  */
 public final class CheckUtils {
 
+    // 元注释实例 -> 预编译条件 (写时复制，按实例比较，避免反射调用equals/hashCode)
+    private static volatile Map<Annotation, AuthorityRegistry.Mask> masks = new IdentityHashMap<>();
+
     private CheckUtils() {
     }
 
+    public static void prepare(RequiresRoles annotation) {
+        getMask(annotation, AuthorityRegistry.ROLES);
+    }
+
+    public static void prepare(RequiresPermissions annotation) {
+        getMask(annotation, AuthorityRegistry.PERMISSIONS);
+    }
+
+    private static AuthorityRegistry.Mask getMask(Annotation annotation, AuthorityRegistry registry) {
+        AuthorityRegistry.Mask mask = masks.get(annotation);
+        if (mask != null) {
+            return mask;
+        }
+
+        synchronized (CheckUtils.class) {
+            mask = masks.get(annotation);
+            if (mask == null) {
+                if (annotation instanceof RequiresRoles) {
+                    val rr = (RequiresRoles) annotation;
+                    mask = registry.compile(rr.value(), rr.logical());
+                } else {
+                    val rp = (RequiresPermissions) annotation;
+                    mask = registry.compile(rp.value(), rp.logical());
+                }
+
+                val copy = new IdentityHashMap<Annotation, AuthorityRegistry.Mask>(masks);
+                copy.put(annotation, mask);
+                masks = copy;
+            }
+            return mask;
+        }
+    }
+
     private static String getMessage(String message) {
         if (!StringUtils.hasText(message) || ":::<NO MESSAGE>:::".equals(message)) {
             return null;
@@ -83,16 +123,8 @@ public final class CheckUtils {
             throw new UserDetailsLockedException(getMessage(annotation.errorMessage()));
         }
 
-        List<String> require = Arrays.asList(annotation.value());
-        Set<String> actual = new HashSet<>(userDetails.getRoleNames());
-        if (annotation.logical() == Logical.AND) {
-            if (!actual.containsAll(require)) {
-                throw new AuthorizationException(getMessage(annotation.errorMessage()));
-            }
-        } else {
-            if (require.stream().noneMatch(actual::contains)) {
-                throw new AuthorizationException(getMessage(annotation.errorMessage()));
-            }
+        if (!userDetails.getAuthorityIndex().matchesRoles(getMask(annotation, AuthorityRegistry.ROLES))) {
+            throw new AuthorizationException(getMessage(annotation.errorMessage()));
         }
     }
 
@@ -114,16 +146,8 @@ public final class CheckUtils {
             throw new UserDetailsLockedException(getMessage(annotation.errorMessage()));
         }
 
-        List<String> require = Arrays.asList(annotation.value());
-        Set<String> actual = new HashSet<>(userDetails.getRoleNames());
-        if (annotation.logical() == Logical.AND) {
-            if (!actual.containsAll(require)) {
-                throw new AuthorizationException(getMessage(annotation.errorMessage()));
-            }
-        } else {
-            if (require.stream().noneMatch(actual::contains)) {
-                throw new AuthorizationException(getMessage(annotation.errorMessage()));
-            }
+        if (!userDetails.getAuthorityIndex().matchesPermissions(getMask(annotation, AuthorityRegistry.PERMISSIONS))) {
+            throw new AuthorizationException(getMessage(annotation.errorMessage()));
         }
     }
 }
@@ -12,7 +12,6 @@ package com.github.yingzhuo.carnival.restful.security.core;
 import com.github.yingzhuo.carnival.restful.security.annotation.AuthenticationComponent;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.lang.annotation.Annotation;
 
@@ -20,12 +19,11 @@ import java.lang.annotation.Annotation;
  * @author 应卓
  */
 @Getter
-@Setter
 @AllArgsConstructor
 public final class MethodCheckPoint {
 
-    private Annotation annotation;
+    private final Annotation annotation;
 
-    private AuthenticationComponent authenticationComponent;
+    private final AuthenticationComponent authenticationComponent;
 
 }
@@ -9,12 +9,6 @@
  */
 package com.github.yingzhuo.carnival.restful.security.core;
 
-import com.github.yingzhuo.carnival.restful.security.AuthenticationStrategy;
-import com.github.yingzhuo.carnival.restful.security.annotation.AuthenticationComponent;
-import com.github.yingzhuo.carnival.restful.security.annotation.IgnoreToken;
-import com.github.yingzhuo.carnival.restful.security.annotation.Requires;
-import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
-import com.github.yingzhuo.carnival.restful.security.cache.CacheManager;
 import com.github.yingzhuo.carnival.restful.security.chain.ChainNode;
 import com.github.yingzhuo.carnival.restful.security.exception.TokenBlacklistedException;
 import com.github.yingzhuo.carnival.restful.security.token.Token;
@@ -22,203 +16,198 @@ import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
 import com.github.yingzhuo.carnival.restful.security.voter.AuthenticationResult;
 import com.github.yingzhuo.carnival.restful.security.voter.SimpleAuthenticationResult;
 import com.github.yingzhuo.carnival.restful.security.voter.UserDetailsVoter;
-import com.github.yingzhuo.carnival.spring.SpringUtils;
 import lombok.val;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletWebRequest;
-import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.LocaleResolver;
-import org.springframework.web.servlet.i18n.FixedLocaleResolver;
-import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * @author 应卓
  */
-public class RestfulSecurityChainInterceptor implements HandlerInterceptor {
-
-    private Map<Method, List<MethodCheckPoint>> cache = new HashMap<>();
+public class RestfulSecurityChainInterceptor extends AbstractRestfulSecurityInterceptor {
 
     private List<ChainNode> chainNodes;
     private UserDetailsVoter userDetailsVoter;
-
-    private CacheManager cacheManager;
-    private LocaleResolver localeResolver = new FixedLocaleResolver();
-    private AuthenticationStrategy authenticationStrategy = AuthenticationStrategy.ONLY_ANNOTATED;
-    private TokenBlackList tokenBlackList;
-    private boolean initialized = false;
+    private ExecutorService executorService;
 
     public RestfulSecurityChainInterceptor() {
         super();
     }
 
     @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-
-        RestfulSecurityContext.clean();
-
-        if (!initialized) {
-            this.initCache(SpringUtils.getBean(RequestMappingHandlerMapping.class).getHandlerMethods().values());
-        }
-
-        if (!(handler instanceof HandlerMethod)) {
-            return true;
-        }
-
-        val handlerMethod = (HandlerMethod) handler;
-
-        if (handlerMethod.hasMethodAnnotation(IgnoreToken.class)) {
-            RestfulSecurityContext.setIgnored(true);
-            return true;
-        }
-
-        final List<MethodCheckPoint> list = cache.get(handlerMethod.getMethod());
-        if ((list == null || list.isEmpty()) && authenticationStrategy == AuthenticationStrategy.ONLY_ANNOTATED) {
-            return true;
-        }
-
-        val results = getAuthenticationResults(request, response, handler);
-        val op = userDetailsVoter.vote(results);
-
-        RestfulSecurityContext.setUserDetails(op.orElse(null));
-
-        if (list != null && !list.isEmpty()) {
-
-            list.forEach(cp -> {
-                Annotation annotation = cp.getAnnotation();
-                AuthenticationComponent ac = cp.getAuthenticationComponent();
-                ac.authenticate(RestfulSecurityContext.getUserDetails().orElse(null), annotation);
-            });
-
+    protected void authenticate(HttpServletRequest request, HttpServletResponse response) {
+        val results = getAuthenticationResults(request, response);
+        val userDetails = userDetailsVoter.vote(results).orElse(null);
+
+        // 胜出节点的令牌，无胜出节点时为最后一个解析到的令牌
+        Token token = null;
+        for (AuthenticationResult result : results) {
+            if (result.getToken() != null) {
+                token = result.getToken();
+            }
+            if (userDetails != null && result.getUserDetails() == userDetails) {
+                break;
+            }
         }
 
-        return true;
+        RestfulSecurityContext.setToken(token);
+        RestfulSecurityContext.setUserDetails(userDetails);
     }
 
-    @Override
-    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        RestfulSecurityContext.clean();
+    public void setChainNodes(List<ChainNode> chainNodes) {
+        this.chainNodes = chainNodes;
     }
 
-    private Method getMethod(Object handler) {
-        return ((HandlerMethod) handler).getMethod();
+    public void setUserDetailsVoter(UserDetailsVoter userDetailsVoter) {
+        this.userDetailsVoter = userDetailsVoter;
     }
 
-    // lazy
-    private synchronized void initCache(Collection<HandlerMethod> handlerMethods) {
-        if (!initialized) {
-
-            for (HandlerMethod hm : handlerMethods) {
-                final Method method = hm.getMethod();
-                final List<MethodCheckPoint> list = new LinkedList<>();
-
-                for (Annotation annotation : method.getDeclaredAnnotations()) {
-                    Requires requires = annotation.annotationType().getAnnotation(Requires.class);
-                    if (requires != null) {
+    /**
+     * 设置后，多个节点解析到令牌时并发调用{@link com.github.yingzhuo.carnival.restful.security.realm.UserDetailsRealm}。
+     * 为null时顺序调用。
+     * 池线程上会恢复提交线程的{@link RestfulSecurityContext}与{@link RequestContextHolder}，
+     * 但请求对象不是线程安全的，Realm只应读取请求状态。
+     *
+     * @param executorService 有界线程池
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
 
-                        final MethodCheckPoint checkPoint = new MethodCheckPoint(
-                                annotation,
-                                SpringUtils.getBean(requires.value())
-                        );
+    // ----------------------------------------------------------------------------------------------------------------
 
-                        list.add(checkPoint);
-                    }
+    private List<AuthenticationResult> getAuthenticationResults(HttpServletRequest request, HttpServletResponse response) {
+        val webRequest = new ServletWebRequest(request, response);
+        val locale = getLocaleResolver().resolveLocale(request);
+        val size = chainNodes.size();
+        val results = new ArrayList<AuthenticationResult>(size);
+
+        if (executorService == null) {
+            for (int index = 0; index < size; index++) {
+                val result = evaluate(index, webRequest, locale);
+                results.add(result);
+                if (userDetailsVoter.canShortCircuit(result)) {
+                    break;
                 }
+            }
+            return results;
+        }
 
-                if (!list.isEmpty()) {
-                    cache.put(method, list);
+        // 令牌解析依赖请求对象，只能在当前线程完成
+        val tokens = new Token[size];
+        val parsed = new AuthenticationResult[size];
+        int tokenCount = 0;
+        for (int index = 0; index < size; index++) {
+            try {
+                tokens[index] = chainNodes.get(index).getTokenParser().parse(webRequest, locale).orElse(null);
+                if (tokens[index] == null) {
+                    parsed[index] = new SimpleAuthenticationResult(null, null, null, index);
+                } else {
+                    tokenCount++;
                 }
+            } catch (Throwable ex) {
+                parsed[index] = new SimpleAuthenticationResult(ex, null, null, index);
             }
+        }
 
-            this.initialized = true;
+        @SuppressWarnings("unchecked") final Future<AuthenticationResult>[] futures = new Future[size];
+        if (tokenCount > 1) {
+            val requestAttributes = RequestContextHolder.getRequestAttributes();
+            for (int index = 0; index < size; index++) {
+                if (tokens[index] != null) {
+                    final int i = index;
+                    futures[index] = executorService.submit(propagate(requestAttributes, () -> resolve(i, tokens[i])));
+                }
+            }
         }
-    }
 
-    public void setChainNodes(List<ChainNode> chainNodes) {
-        this.chainNodes = chainNodes;
-    }
+        for (int index = 0; index < size; index++) {
+            AuthenticationResult result = parsed[index];
+            if (result == null) {
+                result = futures[index] != null ? await(index, futures[index]) : resolve(index, tokens[index]);
+            }
 
-    public void setCacheManager(CacheManager cacheManager) {
-        this.cacheManager = cacheManager;
-    }
+            results.add(result);
 
-    public void setLocaleResolver(LocaleResolver localeResolver) {
-        this.localeResolver = localeResolver;
-    }
+            if (userDetailsVoter.canShortCircuit(result)) {
+                for (int j = index + 1; j < size; j++) {
+                    if (futures[j] != null) {
+                        futures[j].cancel(false);
+                    }
+                }
+                break;
+            }
+        }
 
-    public void setAuthenticationStrategy(AuthenticationStrategy authenticationStrategy) {
-        this.authenticationStrategy = authenticationStrategy;
+        return results;
     }
 
-    public void setTokenBlackList(TokenBlackList tokenBlackList) {
-        this.tokenBlackList = tokenBlackList;
-    }
+    private AuthenticationResult evaluate(int index, ServletWebRequest webRequest, Locale locale) {
+        try {
+            val tokenOp = chainNodes.get(index).getTokenParser().parse(webRequest, locale);
 
-    public void setUserDetailsVoter(UserDetailsVoter userDetailsVoter) {
-        this.userDetailsVoter = userDetailsVoter;
+            if (!tokenOp.isPresent()) {
+                return new SimpleAuthenticationResult(null, null, null, index);
+            }
+
+            return resolve(index, tokenOp.get());
+        } catch (Throwable ex) {
+            return new SimpleAuthenticationResult(ex, null, null, index);
+        }
     }
 
-    // ----------------------------------------------------------------------------------------------------------------
+    private AuthenticationResult resolve(int index, Token token) {
+        try {
+            if (getTokenBlackList().isBlacklisted(token)) {
+                throw new TokenBlacklistedException();
+            }
 
-    private List<AuthenticationResult> getAuthenticationResults(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        val results = new LinkedList<AuthenticationResult>();
+            Optional<UserDetails> userDetailsOp = getCacheManager().getUserDetails(token);
 
-        int index = -1;
-        for (ChainNode node : chainNodes) {
-            index++;
+            if (!userDetailsOp.isPresent()) {
+                userDetailsOp = chainNodes.get(index).getUserDetailsRealm().loadUserDetails(token);
+                userDetailsOp.ifPresent(ud -> getCacheManager().saveUserDetails(token, ud));
+            }
 
-            val tokenParser = node.getTokenParser();
-            val userDetailsRealm = node.getUserDetailsRealm();
+            return new SimpleAuthenticationResult(null, userDetailsOp.orElse(null), token, index);
+        } catch (Throwable ex) {
+            return new SimpleAuthenticationResult(ex, null, token, index);
+        }
+    }
 
+    private static <V> Callable<V> propagate(RequestAttributes requestAttributes, Callable<V> callable) {
+        final Callable<V> task = RestfulSecurityContext.wrap(callable);
+        return () -> {
+            val previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
             try {
-
-                val locale = localeResolver.resolveLocale(request);
-                val tokenOp = tokenParser.parse(new ServletWebRequest(request, response), locale);
-
-                if (tokenOp.isPresent()) {
-
-                    Token token = tokenOp.get();
-                    RestfulSecurityContext.setToken(token);
-
-                    if (tokenBlackList.isBlacklisted(token)) {
-                        throw new TokenBlacklistedException();
-                    }
-
-                    Optional<UserDetails> userDetailsOp;
-                    Optional<UserDetails> cached = cacheManager.getUserDetails(token);
-
-                    if (cached.isPresent()) {
-                        userDetailsOp = cached;
-                    } else {
-                        userDetailsOp = userDetailsRealm.loadUserDetails(tokenOp.get());
-                        userDetailsOp.ifPresent(ud -> cacheManager.saveUserDetails(token, ud));
-                    }
-
-                    RestfulSecurityContext.setUserDetails(userDetailsOp.orElse(null));
-
-                    results.add(
-                            new SimpleAuthenticationResult(
-                                    null,
-                                    RestfulSecurityContext.getUserDetails().orElse(null),
-                                    RestfulSecurityContext.getToken().orElse(null),
-                                    index)
-                    );
-                } else {
-                    results.add(
-                            new SimpleAuthenticationResult(null, null, null, index));
-                }
-
-            } catch (Throwable ex) {
-                results.add(new SimpleAuthenticationResult(ex, null, null, index));
+                return task.call();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
             }
-        }
+        };
+    }
 
-        return results;
+    private AuthenticationResult await(int index, Future<AuthenticationResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new SimpleAuthenticationResult(ex, null, null, index);
+        } catch (ExecutionException ex) {
+            return new SimpleAuthenticationResult(ex.getCause(), null, null, index);
+        }
     }
 
 }
@@ -13,17 +13,25 @@ import com.github.yingzhuo.carnival.restful.security.token.Token;
 import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
 
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * 安全上下文
+ * <p>
+ * 异步执行时可用{@link #capture()}捕获当前上下文并在其他线程中恢复，
+ * 或直接使用{@link #wrap(Runnable)}等方法包装任务，例如:
+ * <pre>
+ * CompletableFuture.supplyAsync(RestfulSecurityContext.wrapSupplier(() -&gt; ...), executor);
+ * </pre>
  *
  * @author 应卓
+ * @see RestfulSecurityContextTaskDecorator
  */
 public final class RestfulSecurityContext {
 
-    private static ThreadLocal<Token> tokenHolder = ThreadLocal.withInitial(() -> null);
-    private static ThreadLocal<UserDetails> userDetailsHolder = ThreadLocal.withInitial(() -> null);
-    private static ThreadLocal<Boolean> ignored = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadLocal<Holder> HOLDER = ThreadLocal.withInitial(Holder::new);
 
     /**
      * 私有构造
@@ -33,37 +41,135 @@ public final class RestfulSecurityContext {
     }
 
     public static Optional<Token> getToken() {
-        return Optional.ofNullable(tokenHolder.get());
+        return Optional.ofNullable(HOLDER.get().token);
     }
 
     public static void setToken(Token token) {
         if (token != null) {
-            tokenHolder.set(token);
+            HOLDER.get().token = token;
         }
     }
 
     public static Optional<UserDetails> getUserDetails() {
-        return Optional.ofNullable(userDetailsHolder.get());
+        return Optional.ofNullable(HOLDER.get().userDetails);
     }
 
     public static void setUserDetails(UserDetails userDetails) {
         if (userDetails != null) {
-            userDetailsHolder.set(userDetails);
+            HOLDER.get().userDetails = userDetails;
         }
     }
 
     public static boolean getIgnored() {
-        return ignored.get();
+        return HOLDER.get().ignored;
     }
 
     public static void setIgnored(boolean ignore) {
-        ignored.set(ignore);
+        HOLDER.get().ignored = ignore;
     }
 
-    static void clean() {
-        tokenHolder.set(null);
-        userDetailsHolder.set(null);
-        ignored.set(Boolean.FALSE);
+    /**
+     * 清空当前线程的上下文
+     */
+    public static void clean() {
+        HOLDER.get().reset(null, null, false);
+    }
+
+    // 传播
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * 捕获当前线程的上下文
+     *
+     * @return 快照 (不可变)
+     */
+    public static Snapshot capture() {
+        final Holder holder = HOLDER.get();
+        return new Snapshot(holder.token, holder.userDetails, holder.ignored);
+    }
+
+    public static Runnable wrap(Runnable runnable) {
+        final Snapshot snapshot = capture();
+        return () -> {
+            try (Scope ignored = snapshot.restore()) {
+                runnable.run();
+            }
+        };
+    }
+
+    public static <V> Callable<V> wrap(Callable<V> callable) {
+        final Snapshot snapshot = capture();
+        return () -> {
+            try (Scope ignored = snapshot.restore()) {
+                return callable.call();
+            }
+        };
+    }
+
+    public static <V> Supplier<V> wrapSupplier(Supplier<V> supplier) {
+        final Snapshot snapshot = capture();
+        return () -> {
+            try (Scope ignored = snapshot.restore()) {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * 包装执行器，提交任务时捕获提交线程的上下文
+     *
+     * @param executor 执行器
+     * @return 包装后的执行器
+     */
+    public static Executor wrap(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class Holder {
+        private Token token;
+        private UserDetails userDetails;
+        private boolean ignored;
+
+        private void reset(Token token, UserDetails userDetails, boolean ignored) {
+            this.token = token;
+            this.userDetails = userDetails;
+            this.ignored = ignored;
+        }
+    }
+
+    /**
+     * 上下文快照
+     */
+    public static final class Snapshot {
+        private final Token token;
+        private final UserDetails userDetails;
+        private final boolean ignored;
+
+        private Snapshot(Token token, UserDetails userDetails, boolean ignored) {
+            this.token = token;
+            this.userDetails = userDetails;
+            this.ignored = ignored;
+        }
+
+        /**
+         * 在当前线程恢复快照
+         *
+         * @return 关闭时还原当前线程原有的上下文
+         */
+        public Scope restore() {
+            final Holder holder = HOLDER.get();
+            final Snapshot previous = new Snapshot(holder.token, holder.userDetails, holder.ignored);
+            holder.reset(token, userDetails, ignored);
+            return () -> holder.reset(previous.token, previous.userDetails, previous.ignored);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        public void close();
     }
 
 }
@@ -0,0 +1,26 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.core;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 将提交线程的{@link RestfulSecurityContext}传播到执行线程 (如`@Async`)
+ *
+ * @author 应卓
+ */
+public class RestfulSecurityContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return RestfulSecurityContext.wrap(runnable);
+    }
+
+}
@@ -9,79 +9,33 @@
  */
 package com.github.yingzhuo.carnival.restful.security.core;
 
-import com.github.yingzhuo.carnival.restful.security.AuthenticationStrategy;
-import com.github.yingzhuo.carnival.restful.security.annotation.AuthenticationComponent;
-import com.github.yingzhuo.carnival.restful.security.annotation.IgnoreToken;
-import com.github.yingzhuo.carnival.restful.security.annotation.Requires;
-import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
-import com.github.yingzhuo.carnival.restful.security.cache.CacheManager;
 import com.github.yingzhuo.carnival.restful.security.exception.TokenBlacklistedException;
 import com.github.yingzhuo.carnival.restful.security.parser.TokenParser;
 import com.github.yingzhuo.carnival.restful.security.realm.UserDetailsRealm;
 import com.github.yingzhuo.carnival.restful.security.token.Token;
 import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
-import com.github.yingzhuo.carnival.spring.SpringUtils;
-import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.web.context.request.ServletWebRequest;
-import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.LocaleResolver;
-import org.springframework.web.servlet.i18n.FixedLocaleResolver;
-import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
-import java.util.*;
+import java.util.Optional;
 
 /**
  * @author 应卓
  */
-@Slf4j
-public class RestfulSecurityInterceptor implements HandlerInterceptor {
-
-    private Map<Method, List<MethodCheckPoint>> cache = new HashMap<>();
+public class RestfulSecurityInterceptor extends AbstractRestfulSecurityInterceptor {
 
     private TokenParser tokenParser;
     private UserDetailsRealm userDetailsRealm;
-    private CacheManager cacheManager;
-    private LocaleResolver localeResolver = new FixedLocaleResolver();
-    private AuthenticationStrategy authenticationStrategy = AuthenticationStrategy.ONLY_ANNOTATED;
-    private TokenBlackList tokenBlackList;
-    private boolean initialized = false;
 
     public RestfulSecurityInterceptor() {
         super();
     }
 
     @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-
-        RestfulSecurityContext.clean();
-
-        if (!initialized) {
-            this.initCache(SpringUtils.getBean(RequestMappingHandlerMapping.class).getHandlerMethods().values());
-        }
-
-        if (!(handler instanceof HandlerMethod)) {
-            return true;
-        }
-
-        val handlerMethod = (HandlerMethod) handler;
-
-        if (handlerMethod.hasMethodAnnotation(IgnoreToken.class)) {
-            RestfulSecurityContext.setIgnored(true);
-            return true;
-        }
-
-        final List<MethodCheckPoint> list = cache.get(handlerMethod.getMethod());
-        if ((list == null || list.isEmpty()) && authenticationStrategy == AuthenticationStrategy.ONLY_ANNOTATED) {
-            return true;
-        }
-
-        val locale = localeResolver.resolveLocale(request);
+    protected void authenticate(HttpServletRequest request, HttpServletResponse response) {
+        val locale = getLocaleResolver().resolveLocale(request);
         val tokenOp = tokenParser.parse(new ServletWebRequest(request, response), locale);
 
         if (tokenOp.isPresent()) {
@@ -89,74 +43,22 @@ public class RestfulSecurityInterceptor implements HandlerInterceptor {
             Token token = tokenOp.get();
             RestfulSecurityContext.setToken(token);
 
-            if (tokenBlackList.isBlacklisted(token)) {
+            if (getTokenBlackList().isBlacklisted(token)) {
                 throw new TokenBlacklistedException();
             }
 
             Optional<UserDetails> userDetailsOp;
-            Optional<UserDetails> cached = cacheManager.getUserDetails(token);
+            Optional<UserDetails> cached = getCacheManager().getUserDetails(token);
 
             if (cached.isPresent()) {
                 userDetailsOp = cached;
             } else {
-                userDetailsOp = userDetailsRealm.loadUserDetails(tokenOp.get());
-                userDetailsOp.ifPresent(ud -> cacheManager.saveUserDetails(token, ud));
+                userDetailsOp = userDetailsRealm.loadUserDetails(token);
+                userDetailsOp.ifPresent(ud -> getCacheManager().saveUserDetails(token, ud));
             }
 
             RestfulSecurityContext.setUserDetails(userDetailsOp.orElse(null));
         }
-
-        if (list != null && !list.isEmpty()) {
-
-            list.forEach(cp -> {
-                Annotation annotation = cp.getAnnotation();
-                AuthenticationComponent ac = cp.getAuthenticationComponent();
-                log.debug("ac type = {}", ac.getClass());
-                ac.authenticate(RestfulSecurityContext.getUserDetails().orElse(null), annotation);
-            });
-
-        }
-
-        return true;
-    }
-
-    @Override
-    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        RestfulSecurityContext.clean();
-    }
-
-    private Method getMethod(Object handler) {
-        return ((HandlerMethod) handler).getMethod();
-    }
-
-    // lazy
-    private synchronized void initCache(Collection<HandlerMethod> handlerMethods) {
-        if (!initialized) {
-
-            for (HandlerMethod hm : handlerMethods) {
-                final Method method = hm.getMethod();
-                final List<MethodCheckPoint> list = new LinkedList<>();
-
-                for (Annotation annotation : method.getDeclaredAnnotations()) {
-                    Requires requires = annotation.annotationType().getAnnotation(Requires.class);
-                    if (requires != null) {
-
-                        final MethodCheckPoint checkPoint = new MethodCheckPoint(
-                                annotation,
-                                SpringUtils.getBean(requires.value())
-                        );
-
-                        list.add(checkPoint);
-                    }
-                }
-
-                if (!list.isEmpty()) {
-                    cache.put(method, list);
-                }
-            }
-
-            this.initialized = true;
-        }
     }
 
     public TokenParser getTokenParser() {
@@ -175,28 +77,4 @@ public class RestfulSecurityInterceptor implements HandlerInterceptor {
         this.userDetailsRealm = userDetailsRealm;
     }
 
-    public CacheManager getCacheManager() {
-        return cacheManager;
-    }
-
-    public void setCacheManager(CacheManager cacheManager) {
-        this.cacheManager = cacheManager;
-    }
-
-    public LocaleResolver getLocaleResolver() {
-        return localeResolver;
-    }
-
-    public void setLocaleResolver(LocaleResolver localeResolver) {
-        this.localeResolver = localeResolver;
-    }
-
-    public void setAuthenticationStrategy(AuthenticationStrategy authenticationStrategy) {
-        this.authenticationStrategy = authenticationStrategy;
-    }
-
-    public void setTokenBlackList(TokenBlackList tokenBlackList) {
-        this.tokenBlackList = tokenBlackList;
-    }
-
 }
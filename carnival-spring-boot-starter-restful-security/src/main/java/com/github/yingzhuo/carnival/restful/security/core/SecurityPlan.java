@@ -0,0 +1,105 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.core;
+
+import com.github.yingzhuo.carnival.restful.security.AuthenticationStrategy;
+import com.github.yingzhuo.carnival.restful.security.annotation.AuthenticationComponent;
+import com.github.yingzhuo.carnival.restful.security.annotation.IgnoreToken;
+import com.github.yingzhuo.carnival.restful.security.annotation.Requires;
+import com.github.yingzhuo.carnival.restful.security.exception.RestfulSecurityException;
+import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
+import com.github.yingzhuo.carnival.spring.SpringUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 安全计划 (不可变)
+ * <p>
+ * 在启动时为每一个HandlerMethod预先编译，请求时无需再反射元注释。
+ *
+ * @author 应卓
+ */
+public final class SecurityPlan {
+
+    private static final MethodCheckPoint[] NO_CHECK_POINTS = new MethodCheckPoint[0];
+
+    /**
+     * 被{@link IgnoreToken}标注的方法
+     */
+    public static final SecurityPlan IGNORED = new SecurityPlan(true, false, NO_CHECK_POINTS);
+
+    /**
+     * 无需认证的方法
+     */
+    public static final SecurityPlan NONE = new SecurityPlan(false, false, NO_CHECK_POINTS);
+
+    /**
+     * 需要认证但无检查点的方法
+     */
+    public static final SecurityPlan AUTHENTICATION_ONLY = new SecurityPlan(false, true, NO_CHECK_POINTS);
+
+    private final boolean ignored;
+    private final boolean authenticationRequired;
+    private final MethodCheckPoint[] checkPoints;
+
+    private SecurityPlan(boolean ignored, boolean authenticationRequired, MethodCheckPoint[] checkPoints) {
+        this.ignored = ignored;
+        this.authenticationRequired = authenticationRequired;
+        this.checkPoints = checkPoints;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SecurityPlan compile(HandlerMethod handlerMethod, AuthenticationStrategy authenticationStrategy) {
+
+        if (handlerMethod.hasMethodAnnotation(IgnoreToken.class)) {
+            return IGNORED;
+        }
+
+        final List<MethodCheckPoint> list = new ArrayList<>();
+
+        for (Annotation annotation : handlerMethod.getMethod().getDeclaredAnnotations()) {
+            Requires requires = annotation.annotationType().getAnnotation(Requires.class);
+            if (requires != null) {
+                final AuthenticationComponent component = SpringUtils.getBean(requires.value());
+                component.prepare(annotation);
+                list.add(new MethodCheckPoint(annotation, component));
+            }
+        }
+
+        if (list.isEmpty()) {
+            return authenticationStrategy == AuthenticationStrategy.ALL ? AUTHENTICATION_ONLY : NONE;
+        }
+
+        return new SecurityPlan(false, true, list.toArray(NO_CHECK_POINTS));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void check(UserDetails userDetails) throws RestfulSecurityException {
+        for (MethodCheckPoint cp : checkPoints) {
+            cp.getAuthenticationComponent().authenticate(userDetails, cp.getAnnotation());
+        }
+    }
+
+    public boolean isIgnored() {
+        return ignored;
+    }
+
+    public boolean isAuthenticationRequired() {
+        return authenticationRequired;
+    }
+
+    public int getCheckPointCount() {
+        return checkPoints.length;
+    }
+
+}
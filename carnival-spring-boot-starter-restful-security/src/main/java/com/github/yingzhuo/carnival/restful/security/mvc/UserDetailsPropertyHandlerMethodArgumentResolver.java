@@ -11,8 +11,8 @@ package com.github.yingzhuo.carnival.restful.security.mvc;
 
 import com.github.yingzhuo.carnival.restful.security.annotation.UserDetailsProperty;
 import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityContext;
+import com.github.yingzhuo.carnival.restful.security.util.PropertyAccessor;
 import lombok.val;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.core.MethodParameter;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -31,23 +31,17 @@ public class UserDetailsPropertyHandlerMethodArgumentResolver implements Handler
 
     @Override
     public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
-        val property = parameter.getParameterAnnotation(UserDetailsProperty.class).value();
         val userDetails = RestfulSecurityContext.getUserDetails().orElse(null);
 
-        if ("".equals(property)) {
-            return userDetails;
-        } else {
-            if (userDetails != null) {
-
-                try {
-                    return new BeanWrapperImpl(userDetails).getPropertyValue(property);
-                } catch (Throwable e) {
-                    return null;
-                }
+        if (userDetails == null) {
+            return null;
+        }
 
-            } else {
-                return null;
-            }
+        try {
+            // 编译结果由PropertyAccessor缓存
+            return PropertyAccessor.of(parameter.getParameterAnnotation(UserDetailsProperty.class).value()).getValue(userDetails);
+        } catch (Throwable e) {
+            return null;
         }
     }
 
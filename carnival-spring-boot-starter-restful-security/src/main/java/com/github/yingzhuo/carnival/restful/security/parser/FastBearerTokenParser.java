@@ -0,0 +1,61 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.parser;
+
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * {@link BearerTokenParser}的低分配版本
+ * <p>
+ * 以下标扫描请求头，不区分`Bearer`大小写，忽略前后空白，只创建令牌本身的字符串。
+ *
+ * @author 应卓
+ * @see BearerTokenParser
+ */
+public class FastBearerTokenParser implements TokenParser {
+
+    private static final String AUTHORIZATION = "Authorization";
+    private static final String BEARER = "Bearer ";
+    private static final int BEARER_LEN = BEARER.length();
+
+    @Override
+    public Optional<Token> parse(NativeWebRequest webRequest, Locale locale) {
+        final String header = webRequest.getHeader(AUTHORIZATION);
+
+        if (header == null) {
+            return Optional.empty();
+        }
+
+        int begin = 0;
+        int end = header.length();
+
+        while (begin < end && header.charAt(begin) <= ' ') begin++;
+        while (end > begin && header.charAt(end - 1) <= ' ') end--;
+
+        if (end - begin <= BEARER_LEN || !header.regionMatches(true, begin, BEARER, 0, BEARER_LEN)) {
+            return Optional.empty();
+        }
+
+        begin += BEARER_LEN;
+        while (begin < end && header.charAt(begin) == ' ') begin++;
+
+        if (begin == end) {
+            return Optional.empty();
+        }
+
+        return Optional.of(StringToken.of(header.substring(begin, end)));
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.token;
+
+import java.util.Date;
+
+/**
+ * 自身携带过期时间的令牌
+ *
+ * @author 应卓
+ * @see com.github.yingzhuo.carnival.restful.security.cache.CaffeineCacheManager
+ */
+public interface ExpirableToken extends Token {
+
+    /**
+     * 获取过期时间
+     *
+     * @return 过期时间，未知时返回null
+     */
+    public Date getExpiresAt();
+
+}
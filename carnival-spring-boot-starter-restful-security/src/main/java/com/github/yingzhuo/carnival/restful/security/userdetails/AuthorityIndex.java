@@ -0,0 +1,115 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.userdetails;
+
+import com.github.yingzhuo.carnival.restful.security.Logical;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 角色与权限索引 (不可变)
+ * <p>
+ * 已注册于{@link AuthorityRegistry}的名称以位图表示，检查时无需创建对象。
+ *
+ * @author 应卓
+ * @see UserDetails#getAuthorityIndex()
+ */
+public final class AuthorityIndex {
+
+    public static final AuthorityIndex EMPTY = of(Collections.emptyList(), Collections.emptyList());
+
+    public static AuthorityIndex of(Collection<String> roleNames, Collection<String> permissionNames) {
+        return new AuthorityIndex(new Bits(AuthorityRegistry.ROLES, roleNames), new Bits(AuthorityRegistry.PERMISSIONS, permissionNames));
+    }
+
+    private final Bits roles;
+    private final Bits permissions;
+
+    private AuthorityIndex(Bits roles, Bits permissions) {
+        this.roles = roles;
+        this.permissions = permissions;
+    }
+
+    public Set<String> getRoleNames() {
+        return roles.names;
+    }
+
+    public Set<String> getPermissionNames() {
+        return permissions.names;
+    }
+
+    public boolean hasRole(String name) {
+        return roles.names.contains(name);
+    }
+
+    public boolean hasPermission(String name) {
+        return permissions.names.contains(name);
+    }
+
+    public boolean matchesRoles(AuthorityRegistry.Mask mask) {
+        return roles.matches(mask);
+    }
+
+    public boolean matchesPermissions(AuthorityRegistry.Mask mask) {
+        return permissions.matches(mask);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static final class Bits {
+
+        private final Set<String> names;
+        private final long[] words;
+        private final int length;
+
+        private Bits(AuthorityRegistry registry, Collection<String> names) {
+            this.names = names.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(names)); // 保持声明顺序
+            this.length = registry.size();
+            this.words = new long[(length + 63) >>> 6];
+
+            for (String name : this.names) {
+                final int bit = registry.indexOf(name);
+                if (bit >= 0 && bit < length) {
+                    words[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        private boolean matches(AuthorityRegistry.Mask mask) {
+            final boolean and = mask.getLogical() == Logical.AND;
+
+            // 索引建立后才注册的名称，退化为按名称检查
+            if (mask.getLength() > length) {
+                for (String name : mask.getNames()) {
+                    if (names.contains(name) != and) {
+                        return !and;
+                    }
+                }
+                return and;
+            }
+
+            final long[] required = mask.getWords();
+            for (int i = 0; i < required.length; i++) {
+                final long hit = words[i] & required[i];
+                if (and && hit != required[i]) {
+                    return false;
+                }
+                if (!and && hit != 0L) {
+                    return true;
+                }
+            }
+            return and;
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.userdetails;
+
+import com.github.yingzhuo.carnival.restful.security.Logical;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 权限名注册表 (内部工具)
+ * <p>
+ * 启动时将{@link com.github.yingzhuo.carnival.restful.security.RequiresRoles}与
+ * {@link com.github.yingzhuo.carnival.restful.security.RequiresPermissions}中出现的名称注册为位序号，
+ * 检查时只需按位运算。只增不减。
+ *
+ * @author 应卓
+ * @see AuthorityIndex
+ */
+public final class AuthorityRegistry {
+
+    public static final AuthorityRegistry ROLES = new AuthorityRegistry();
+    public static final AuthorityRegistry PERMISSIONS = new AuthorityRegistry();
+
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private volatile int size = 0;
+
+    private AuthorityRegistry() {
+        super();
+    }
+
+    public synchronized int register(String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            index = size;
+            indexes.put(name, index);
+            size = index + 1;
+        }
+        return index;
+    }
+
+    public int indexOf(String name) {
+        final Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Mask compile(String[] names, Logical logical) {
+        int max = 0;
+        final int[] bits = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            bits[i] = register(names[i]);
+            max = Math.max(max, bits[i] + 1);
+        }
+
+        final long[] words = new long[(max + 63) >>> 6];
+        for (int bit : bits) {
+            words[bit >>> 6] |= 1L << bit;
+        }
+        return new Mask(words, max, names.clone(), logical);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * 预编译的检查条件 (不可变)
+     */
+    public static final class Mask {
+
+        private final long[] words;
+        private final int length;
+        private final String[] names;
+        private final Logical logical;
+
+        private Mask(long[] words, int length, String[] names, Logical logical) {
+            this.words = words;
+            this.length = length;
+            this.names = names;
+            this.logical = logical;
+        }
+
+        long[] getWords() {
+            return words;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        String[] getNames() {
+            return names;
+        }
+
+        public Logical getLogical() {
+            return logical;
+        }
+    }
+
+}
@@ -9,6 +9,7 @@
  */
 package com.github.yingzhuo.carnival.restful.security.userdetails;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.github.yingzhuo.carnival.restful.security.role.Permission;
 import com.github.yingzhuo.carnival.restful.security.role.Role;
 import lombok.ToString;
@@ -22,7 +23,7 @@ import java.util.*;
  * @author 应卓
  * @see UserDetails
  */
-@ToString
+@ToString(exclude = "authorityIndex")
 public class SimpleUserDetails implements UserDetails, Serializable {
 
     private static final long serialVersionUID = 7811607048302332880L;
@@ -38,6 +39,7 @@ public class SimpleUserDetails implements UserDetails, Serializable {
     private Collection<Role> roles = Collections.emptyList();
     private Collection<Permission> permissions = Collections.emptyList();
     private Object nativeUser = null;
+    private transient volatile AuthorityIndex authorityIndex = null;
 
     @Override
     public Object getId() {
@@ -100,6 +102,7 @@ public class SimpleUserDetails implements UserDetails, Serializable {
 
     public void setRoles(Collection<Role> roles) {
         this.roles = roles;
+        this.authorityIndex = null;
     }
 
     @Override
@@ -109,6 +112,51 @@ public class SimpleUserDetails implements UserDetails, Serializable {
 
     public void setPermissions(Collection<Permission> permissions) {
         this.permissions = permissions;
+        this.authorityIndex = null;
+    }
+
+    @Override
+    public Collection<String> getRoleNames() {
+        return getAuthorityIndex().getRoleNames();
+    }
+
+    @Override
+    public Collection<String> getPermissionNames() {
+        return getAuthorityIndex().getPermissionNames();
+    }
+
+    @Override
+    @JsonIgnore
+    public AuthorityIndex getAuthorityIndex() {
+        AuthorityIndex index = this.authorityIndex;
+        if (index == null) {
+            // 直接使用字段，getRoleNames()/getPermissionNames()依赖本方法
+            index = AuthorityIndex.of(roleNames(roles), permissionNames(permissions));
+            this.authorityIndex = index;
+        }
+        return index;
+    }
+
+    private static Collection<String> roleNames(Collection<Role> roles) {
+        if (roles == null) {
+            return Collections.emptyList();
+        }
+        final List<String> names = new ArrayList<>(roles.size());
+        for (Role role : roles) {
+            names.add(role.getName());
+        }
+        return names;
+    }
+
+    private static Collection<String> permissionNames(Collection<Permission> permissions) {
+        if (permissions == null) {
+            return Collections.emptyList();
+        }
+        final List<String> names = new ArrayList<>(permissions.size());
+        for (Permission permission : permissions) {
+            names.add(permission.getName());
+        }
+        return names;
     }
 
     @Override
@@ -9,6 +9,7 @@
  */
 package com.github.yingzhuo.carnival.restful.security.userdetails;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.github.yingzhuo.carnival.restful.security.role.Permission;
 import com.github.yingzhuo.carnival.restful.security.role.Role;
 import lombok.val;
@@ -70,6 +71,16 @@ public interface UserDetails extends Serializable {
         return Collections.unmodifiableList(getPermissions().stream().map(Permission::getName).collect(Collectors.toList()));
     }
 
+    /**
+     * 角色与权限索引，实现类应缓存
+     *
+     * @return 索引
+     */
+    @JsonIgnore
+    public default AuthorityIndex getAuthorityIndex() {
+        return AuthorityIndex.of(getRoleNames(), getPermissionNames());
+    }
+
     // Builder
     // -----------------------------------------------------------------------------------------------------------------
 
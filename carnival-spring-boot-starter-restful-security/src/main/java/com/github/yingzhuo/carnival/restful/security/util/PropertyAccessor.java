@@ -0,0 +1,226 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.util;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的属性表达式 (不可变)
+ * <p>
+ * 支持`a.b.c`、`list[0]`、`map[key]`形式，语义与BeanWrapper一致，空表达式取根对象本身。
+ * getter以MethodHandle缓存，取值时不再反射。
+ * 编译结果按表达式缓存，最多缓存{@value #MAX_CACHED}个，超出后新的表达式每次重新编译，动态拼接的表达式不会使缓存无限增长。
+ *
+ * @author 应卓
+ */
+public final class PropertyAccessor {
+
+    private static final int MAX_CACHED = 1024;
+    private static final Map<String, PropertyAccessor> ACCESSORS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, MethodHandle>> GETTERS = new ConcurrentHashMap<>();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    public static PropertyAccessor of(String path) {
+        PropertyAccessor accessor = ACCESSORS.get(path);
+        if (accessor == null) {
+            if (ACCESSORS.size() >= MAX_CACHED) {
+                return new PropertyAccessor(path);
+            }
+            accessor = ACCESSORS.computeIfAbsent(path, PropertyAccessor::new);
+        }
+        return accessor;
+    }
+
+    private final String path;
+    private final Segment[] segments;
+
+    private PropertyAccessor(String path) {
+        this.path = path;
+        this.segments = parse(path);
+    }
+
+    /**
+     * 取值
+     *
+     * @param root 根对象
+     * @return 值，中间值为null时返回null
+     * @throws IllegalArgumentException 属性不存在或不可读
+     */
+    public Object getValue(Object root) {
+        Object current = root;
+        for (Segment segment : segments) {
+            if (current == null) {
+                return null;
+            }
+            current = segment.apply(current);
+        }
+        return current;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static Segment[] parse(String path) {
+        final List<Segment> list = new ArrayList<>();
+        int i = 0;
+        final int len = path.length();
+
+        while (i < len) {
+            final char c = path.charAt(i);
+            if (c == '.') {
+                i++;
+            } else if (c == '[') {
+                final int end = path.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("invalid property path: " + path);
+                }
+                String key = path.substring(i + 1, end);
+                if (key.length() >= 2 && (key.charAt(0) == '\'' || key.charAt(0) == '"')) {
+                    key = key.substring(1, key.length() - 1);
+                }
+                list.add(new KeySegment(key));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < len && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                list.add(new GetterSegment(path.substring(i, end)));
+                i = end;
+            }
+        }
+
+        if (list.isEmpty() && !path.isEmpty()) {
+            throw new IllegalArgumentException("invalid property path: " + path);
+        }
+        return list.toArray(new Segment[0]);
+    }
+
+    private static MethodHandle getter(Class<?> type, String name) {
+        final Map<String, MethodHandle> byName = GETTERS.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        MethodHandle handle = byName.get(name);
+        if (handle == null) {
+            handle = byName.computeIfAbsent(name, n -> createGetter(type, n));
+        }
+        return handle;
+    }
+
+    private static MethodHandle createGetter(Class<?> type, String name) {
+        final PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(type, name);
+        if (pd == null || pd.getReadMethod() == null) {
+            throw new IllegalArgumentException("no readable property '" + name + "' on " + type.getName());
+        }
+
+        try {
+            final Method method = ClassUtils.getInterfaceMethodIfPossible(pd.getReadMethod());
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private interface Segment {
+        public Object apply(Object target);
+    }
+
+    private static final class GetterSegment implements Segment {
+        private final String name;
+
+        // 单态内联缓存
+        private volatile Cached cached;
+
+        private GetterSegment(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object apply(Object target) {
+            final Class<?> type = target.getClass();
+            Cached c = cached;
+            if (c == null || c.type != type) {
+                c = new Cached(type, getter(type, name));
+                this.cached = c;
+            }
+
+            try {
+                return c.handle.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class Cached {
+        private final Class<?> type;
+        private final MethodHandle handle;
+
+        private Cached(Class<?> type, MethodHandle handle) {
+            this.type = type;
+            this.handle = handle;
+        }
+    }
+
+    private static final class KeySegment implements Segment {
+        private final String key;
+        private final int index;
+
+        private KeySegment(String key) {
+            this.key = key;
+            int i;
+            try {
+                i = Integer.parseInt(key);
+            } catch (NumberFormatException e) {
+                i = -1;
+            }
+            this.index = i;
+        }
+
+        @Override
+        public Object apply(Object target) {
+            if (target instanceof Map) {
+                return ((Map<?, ?>) target).get(key);
+            }
+
+            if (index < 0) {
+                throw new IllegalArgumentException("invalid index '" + key + "'");
+            }
+
+            if (target instanceof List) {
+                final List<?> list = (List<?>) target;
+                return index < list.size() ? list.get(index) : null;
+            }
+
+            if (target.getClass().isArray()) {
+                return index < Array.getLength(target) ? Array.get(target, index) : null;
+            }
+
+            throw new IllegalArgumentException("cannot index " + target.getClass().getName());
+        }
+    }
+
+}
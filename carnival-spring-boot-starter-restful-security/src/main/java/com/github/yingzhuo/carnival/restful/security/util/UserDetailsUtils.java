@@ -12,8 +12,6 @@ package com.github.yingzhuo.carnival.restful.security.util;
 import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityContext;
 import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
 import lombok.val;
-import org.springframework.beans.BeanWrapperImpl;
-import org.springframework.beans.BeansException;
 
 import java.util.*;
 
@@ -194,9 +192,9 @@ public final class UserDetailsUtils {
         }
 
         try {
-            T result = (T) new BeanWrapperImpl(userDetails).getPropertyValue(propertyName);
+            T result = (T) PropertyAccessor.of(propertyName).getValue(userDetails);
             return result != null ? result : defaultValue;
-        } catch (BeansException e) {
+        } catch (RuntimeException e) {
             return defaultValue;
         }
     }
@@ -35,4 +35,9 @@ public class FirstSuccessUserDetailsVoter implements UserDetailsVoter {
         return Optional.empty();
     }
 
+    @Override
+    public boolean canShortCircuit(AuthenticationResult authenticationResult) {
+        return authenticationResult.isSuccess();
+    }
+
 }
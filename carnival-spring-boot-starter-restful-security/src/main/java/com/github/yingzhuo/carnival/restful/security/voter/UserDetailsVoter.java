@@ -21,4 +21,14 @@ public interface UserDetailsVoter {
 
     public Optional<UserDetails> vote(List<AuthenticationResult> authenticationResults);
 
+    /**
+     * 是否可以短路
+     *
+     * @param authenticationResult 按顺序评估的某一节点的结果
+     * @return 返回true时不再评估后续节点
+     */
+    public default boolean canShortCircuit(AuthenticationResult authenticationResult) {
+        return false;
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.blacklist;
+
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class BloomFilterTokenBlackListTest {
+
+    private final StubStore store = new StubStore();
+
+    @Test
+    public void localSave() {
+        final BloomFilterTokenBlackList blackList = blackList();
+        blackList.save(StringToken.of("a"));
+
+        assertTrue(blackList.isBlacklisted(StringToken.of("a")));
+        assertFalse(blackList.isBlacklisted(StringToken.of("b")));
+    }
+
+    @Test
+    public void rebuildLoadsStore() {
+        store.revoke(StringToken.of("a"), System.currentTimeMillis() - 1000L);
+
+        final BloomFilterTokenBlackList blackList = blackList();
+        assertTrue(blackList.isBlacklisted(StringToken.of("a")));
+    }
+
+    @Test
+    public void syncPicksUpBackDatedRevocation() {
+        final BloomFilterTokenBlackList blackList = blackList();
+
+        // 时钟落后的节点在上次同步之后写入，时间戳却早于上次同步
+        store.revoke(StringToken.of("a"), System.currentTimeMillis() - 5000L);
+        blackList.sync();
+
+        assertTrue(blackList.isBlacklisted(StringToken.of("a")));
+    }
+
+    private BloomFilterTokenBlackList blackList() {
+        final BloomFilterTokenBlackList blackList = new BloomFilterTokenBlackList(store, 1000L, Duration.ofHours(1L), 0.0001D, 4);
+        blackList.setSyncOverlap(Duration.ofSeconds(30L));
+        blackList.rebuild();
+        return blackList;
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static class StubStore implements TokenBlackListStore {
+
+        private final Map<Token, Long> revocations = new ConcurrentHashMap<>();
+
+        void revoke(Token token, long timestamp) {
+            revocations.put(token, timestamp);
+        }
+
+        @Override
+        public void save(Token token) {
+            revoke(token, System.currentTimeMillis());
+        }
+
+        @Override
+        public boolean contains(Token token) {
+            return revocations.containsKey(token);
+        }
+
+        @Override
+        public Collection<Token> findSince(long timestamp) {
+            final List<Token> tokens = new ArrayList<>();
+            revocations.forEach((token, time) -> {
+                if (time >= timestamp) {
+                    tokens.add(token);
+                }
+            });
+            return tokens;
+        }
+    }
+
+}
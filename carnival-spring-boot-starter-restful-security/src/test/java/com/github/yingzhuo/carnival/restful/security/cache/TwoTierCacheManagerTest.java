@@ -0,0 +1,235 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.cache;
+
+import com.github.yingzhuo.carnival.restful.security.blacklist.CacheEvictingTokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.blacklist.TokenBlackList;
+import com.github.yingzhuo.carnival.restful.security.token.StringToken;
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import com.github.yingzhuo.carnival.restful.security.userdetails.UserDetails;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class TwoTierCacheManagerTest {
+
+    private final FakeRedis redis = new FakeRedis();
+    private final TwoTierCacheManager nodeA = redis.newNode();
+    private final TwoTierCacheManager nodeB = redis.newNode();
+
+    @Test
+    public void sharedThroughRedis() {
+        final Token token = StringToken.of("token-1");
+        nodeA.saveUserDetails(token, user(1L));
+
+        assertEquals("user-1", nodeB.getUserDetails(token).map(UserDetails::getUsername).orElse(null));
+        assertTrue(redis.values.keySet().stream().noneMatch(key -> key.contains("token-1")));
+    }
+
+    @Test
+    public void evictionReachesOtherNodes() {
+        final Token token = StringToken.of("token-1");
+        nodeA.saveUserDetails(token, user(1L));
+        assertTrue(nodeB.getUserDetails(token).isPresent());      // 进入B的本地缓存
+
+        nodeA.evictUserDetails(token);
+
+        assertFalse(nodeA.getUserDetails(token).isPresent());
+        assertFalse(nodeB.getUserDetails(token).isPresent());
+    }
+
+    @Test
+    public void evictUser() {
+        final Token t1 = StringToken.of("token-1");
+        final Token t2 = StringToken.of("token-2");
+        final Token t3 = StringToken.of("token-3");
+        nodeA.saveUserDetails(t1, user(1L));
+        nodeA.saveUserDetails(t2, user(1L));
+        nodeA.saveUserDetails(t3, user(2L));
+        for (Token token : new Token[]{t1, t2, t3}) {
+            assertTrue(nodeB.getUserDetails(token).isPresent());
+        }
+
+        nodeB.evictUser(1L);
+
+        for (TwoTierCacheManager node : new TwoTierCacheManager[]{nodeA, nodeB}) {
+            assertFalse(node.getUserDetails(t1).isPresent());
+            assertFalse(node.getUserDetails(t2).isPresent());
+            assertTrue(node.getUserDetails(t3).isPresent());
+        }
+        assertTrue(redis.sets.keySet().stream().noneMatch(key -> key.endsWith("user-1")));
+    }
+
+    @Test
+    public void evictionDuringRedisReadIsNotUndone() {
+        final Token token = StringToken.of("token-1");
+        nodeA.saveUserDetails(token, user(1L));
+
+        // B从Redis读取之后、写入本地缓存之前，A删除了该缓存项
+        redis.afterGet = () -> {
+            redis.afterGet = null;
+            nodeA.evictUserDetails(token);
+        };
+        assertTrue(nodeB.getUserDetails(token).isPresent());
+
+        assertFalse(nodeB.getUserDetails(token).isPresent());
+    }
+
+    @Test
+    public void blacklistEvictsEverywhere() {
+        final Token token = StringToken.of("token-1");
+        nodeA.saveUserDetails(token, user(1L));
+        assertTrue(nodeB.getUserDetails(token).isPresent());
+
+        final List<Token> saved = new ArrayList<>();
+        final TokenBlackList blackList = new CacheEvictingTokenBlackList(new TokenBlackList() {
+            @Override
+            public void save(Token t) {
+                saved.add(t);
+            }
+
+            @Override
+            public boolean isBlacklisted(Token t) {
+                return saved.contains(t);
+            }
+        }, nodeA);
+
+        blackList.save(token);
+
+        assertTrue(blackList.isBlacklisted(token));
+        assertFalse(nodeA.getUserDetails(token).isPresent());
+        assertFalse(nodeB.getUserDetails(token).isPresent());
+    }
+
+    private static UserDetails user(long id) {
+        return UserDetails.builder().id(id).username("user-" + id).build();
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * 内存中的Redis替身: 键值、集合与同步投递的发布/订阅
+     */
+    private static final class FakeRedis {
+
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+        private final List<TwoTierCacheManager> subscribers = new CopyOnWriteArrayList<>();
+        private volatile Runnable afterGet;
+
+        @SuppressWarnings("unchecked")
+        private TwoTierCacheManager newNode() {
+            final ValueOperations<String, UserDetails> valueOps = Mockito.mock(ValueOperations.class, invocation -> {
+                final Object[] args = invocation.getArguments();
+                switch (invocation.getMethod().getName()) {
+                    case "get":
+                        final Object value = values.get((String) args[0]);
+                        final Runnable hook = afterGet;
+                        if (hook != null) {
+                            hook.run();
+                        }
+                        return value;
+                    case "set":
+                        values.put((String) args[0], args[1]);
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(invocation.getMethod().toString());
+                }
+            });
+
+            final RedisTemplate<String, UserDetails> userDetailsTemplate = Mockito.mock(RedisTemplate.class, invocation -> {
+                final Object[] args = invocation.getArguments();
+                switch (invocation.getMethod().getName()) {
+                    case "opsForValue":
+                        return valueOps;
+                    case "delete":
+                        return values.remove((String) args[0]) != null;
+                    default:
+                        throw new UnsupportedOperationException(invocation.getMethod().toString());
+                }
+            });
+
+            final SetOperations<String, String> setOps = Mockito.mock(SetOperations.class, invocation -> {
+                final Object[] args = invocation.getArguments();
+                if ("add".equals(invocation.getMethod().getName())) {
+                    final Set<String> set = sets.computeIfAbsent((String) args[0], k -> ConcurrentHashMap.newKeySet());
+                    long added = 0L;
+                    for (Object member : flatten(args, 1)) {
+                        added += set.add((String) member) ? 1L : 0L;
+                    }
+                    return added;
+                }
+                throw new UnsupportedOperationException(invocation.getMethod().toString());
+            });
+
+            final StringRedisTemplate stringTemplate = Mockito.mock(StringRedisTemplate.class, invocation -> {
+                final Object[] args = invocation.getArguments();
+                switch (invocation.getMethod().getName()) {
+                    case "opsForSet":
+                        return setOps;
+                    case "expire":
+                        return true;
+                    case "execute":
+                        // POP_MEMBERS: SMEMBERS + DEL
+                        final Set<String> members = sets.remove(((List<String>) args[1]).get(0));
+                        return members == null ? new ArrayList<String>() : new ArrayList<>(members);
+                    case "convertAndSend":
+                        final byte[] channel = ((String) args[0]).getBytes(StandardCharsets.UTF_8);
+                        final byte[] body = ((String) args[1]).getBytes(StandardCharsets.UTF_8);
+                        for (TwoTierCacheManager subscriber : subscribers) {
+                            subscriber.onMessage(new DefaultMessage(channel, body), null);
+                        }
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(invocation.getMethod().toString());
+                }
+            });
+
+            final TwoTierCacheManager node = new TwoTierCacheManager(null, stringTemplate, userDetailsTemplate, 100L, Duration.ofMinutes(10L));
+            subscribers.add(node);
+            return node;
+        }
+
+        private static Collection<Object> flatten(Object[] args, int from) {
+            final Collection<Object> result = new HashSet<>();
+            for (int i = from; i < args.length; i++) {
+                if (args[i] instanceof Object[]) {
+                    for (Object o : (Object[]) args[i]) {
+                        result.add(o);
+                    }
+                } else {
+                    result.add(args[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+}
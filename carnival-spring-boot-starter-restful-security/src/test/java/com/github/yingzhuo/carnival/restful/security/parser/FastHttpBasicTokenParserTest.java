@@ -0,0 +1,146 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.parser;
+
+import com.github.yingzhuo.carnival.restful.security.token.Token;
+import com.github.yingzhuo.carnival.restful.security.token.UsernamePasswordToken;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class FastHttpBasicTokenParserTest {
+
+    private final FastHttpBasicTokenParser parser = new FastHttpBasicTokenParser();
+
+    @Test
+    public void decodeMatchesJdk() {
+        final Random random = new Random(42L);
+        for (int length = 0; length < 200; length++) {
+            final byte[] data = new byte[length];
+            random.nextBytes(data);
+
+            assertDecodes(Base64.getEncoder().encodeToString(data), Base64.getDecoder());
+            assertDecodes(Base64.getEncoder().withoutPadding().encodeToString(data), Base64.getDecoder());
+            assertDecodes(Base64.getUrlEncoder().encodeToString(data), Base64.getUrlDecoder());
+            assertDecodes(Base64.getUrlEncoder().withoutPadding().encodeToString(data), Base64.getUrlDecoder());
+        }
+    }
+
+    @Test
+    public void decodeRejectsIllegalInput() {
+        final byte[] buffer = new byte[16];
+        assertEquals(-1, FastHttpBasicTokenParser.decode("ab$d", 0, 4, buffer));
+        assertEquals(-1, FastHttpBasicTokenParser.decode("ab d", 0, 4, buffer));
+        assertEquals(-1, FastHttpBasicTokenParser.decode("abcé", 0, 4, buffer));
+        assertEquals(-1, FastHttpBasicTokenParser.decode("abcde", 0, 5, buffer));        // 余1个字符
+    }
+
+    @Test
+    public void valid() {
+        assertToken("user", "pass", "Basic " + encode("user:pass"));
+        assertToken("user", "pass", "basic " + encode("user:pass"));
+        assertToken("user", "", "Basic " + encode("user:"));
+        assertToken("", "pass", "Basic " + encode(":pass"));
+        assertToken("用户", "口令", "Basic " + encode("用户:口令"));
+    }
+
+    @Test
+    public void passwordMayContainColons() {
+        assertToken("user", "a:b:c", "Basic " + encode("user:a:b:c"));
+    }
+
+    @Test
+    public void padding() {
+        // 1、2个填充字符及无填充
+        assertToken("u", "p", "Basic " + encode("u:p"));
+        assertToken("us", "p", "Basic " + encode("us:p"));
+        assertToken("us", "pa", "Basic " + encode("us:pa"));
+        assertToken("u", "p", "Basic " + Base64.getEncoder().withoutPadding().encodeToString("u:p".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void whitespace() {
+        final String credentials = encode("user:pass");
+        assertToken("user", "pass", "  Basic " + credentials);
+        assertToken("user", "pass", "\tBasic " + credentials);
+        assertToken("user", "pass", "Basic " + credentials + "  ");
+        assertToken("user", "pass", "Basic    " + credentials);
+        assertToken("user", "pass", " Basic " + credentials + "\t");
+    }
+
+    @Test
+    public void rejected() {
+        assertFalse(parse(null).isPresent());
+        assertFalse(parse("").isPresent());
+        assertFalse(parse("Basic").isPresent());
+        assertFalse(parse("Basic ").isPresent());
+        assertFalse(parse("Bearer " + encode("user:pass")).isPresent());
+        assertFalse(parse("Basic " + encode("userpass")).isPresent());                 // 没有冒号
+        assertFalse(parse("Basic dXNl$jpwYXNz").isPresent());                          // 非法字符
+        assertFalse(parse("Basic dXNlcjpwYXNzZ").isPresent());                         // 长度非法
+    }
+
+    @Test
+    public void sameAsHttpBasicTokenParser() {
+        final HttpBasicTokenParser legacy = new HttpBasicTokenParser();
+        for (String header : new String[]{
+                "Basic " + encode("user:pass"),
+                "Basic " + encode("user:a:b"),
+                "Basic " + encode("userpass"),
+                "Bearer abc"}) {
+            assertEquals(header, legacy.parse(request(header), Locale.getDefault()), parse(header));
+        }
+    }
+
+    private static String encode(String credentials) {
+        return Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 与parse一致，调用decode之前去掉填充字符
+    private static void assertDecodes(String encoded, Base64.Decoder jdk) {
+        int end = encoded.length();
+        while (end > 0 && encoded.charAt(end - 1) == '=') end--;
+
+        final byte[] buffer = new byte[encoded.length()];
+        final int len = FastHttpBasicTokenParser.decode(encoded, 0, end, buffer);
+        assertArrayEquals(encoded, jdk.decode(encoded), Arrays.copyOf(buffer, len));
+    }
+
+    private void assertToken(String username, String password, String header) {
+        final Optional<Token> token = parse(header);
+        assertTrue(header, token.isPresent());
+        assertEquals(header, new UsernamePasswordToken(username, password), token.get());
+    }
+
+    private Optional<Token> parse(String header) {
+        return parser.parse(request(header), Locale.getDefault());
+    }
+
+    private static ServletWebRequest request(String header) {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        if (header != null) {
+            request.addHeader("Authorization", header);
+        }
+        return new ServletWebRequest(request);
+    }
+
+}
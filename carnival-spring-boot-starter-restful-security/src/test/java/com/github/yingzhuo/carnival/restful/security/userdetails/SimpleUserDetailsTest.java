@@ -0,0 +1,125 @@
+/*
+ *  ____    _    ____  _   _ _____     ___    _
+ * / ___|  / \  |  _ \| \ | |_ _\ \   / / \  | |
+ * | |    / _ \ | |_) |  \| || | \ \ / / _ \ | |
+ * | |___/ ___ \|  _ <| |\  || |  \ V / ___ \| |___
+ * \____/_/   \_\_| \_\_| \_|___|  \_/_/   \_\_____|
+ *
+ * https://github.com/yingzhuo/carnival
+ */
+package com.github.yingzhuo.carnival.restful.security.userdetails;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.yingzhuo.carnival.restful.security.Logical;
+import com.github.yingzhuo.carnival.restful.security.RequiresPermissions;
+import com.github.yingzhuo.carnival.restful.security.RequiresRoles;
+import com.github.yingzhuo.carnival.restful.security.core.CheckUtils;
+import com.github.yingzhuo.carnival.restful.security.core.RestfulSecurityContext;
+import com.github.yingzhuo.carnival.restful.security.exception.AuthorizationException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author 应卓
+ */
+public class SimpleUserDetailsTest {
+
+    private final UserDetails userDetails = UserDetails.builder()
+            .id(1L)
+            .username("yingzhuo")
+            .roles("admin", "user")
+            .permissions("user:read")
+            .build();
+
+    @After
+    public void cleanup() {
+        RestfulSecurityContext.clean();
+    }
+
+    @Test
+    public void roleAndPermissionNames() {
+        assertTrue(userDetails.getRoleNames().contains("admin"));
+        assertTrue(userDetails.getRoleNames().contains("user"));
+        assertTrue(userDetails.getPermissionNames().contains("user:read"));
+        assertTrue(userDetails.getAuthorityIndex().hasRole("admin"));
+        assertFalse(userDetails.getAuthorityIndex().hasPermission("user:write"));
+    }
+
+    @Test
+    public void checkRoles() throws Exception {
+        RestfulSecurityContext.setUserDetails(userDetails);
+        CheckUtils.check(annotation("admin", RequiresRoles.class));
+        CheckUtils.check(annotation("adminAndUser", RequiresRoles.class));
+    }
+
+    @Test(expected = AuthorizationException.class)
+    public void checkRolesDenied() throws Exception {
+        RestfulSecurityContext.setUserDetails(userDetails);
+        CheckUtils.check(annotation("root", RequiresRoles.class));
+    }
+
+    @Test
+    public void checkPermissions() throws Exception {
+        RestfulSecurityContext.setUserDetails(userDetails);
+        CheckUtils.check(annotation("read", RequiresPermissions.class));
+    }
+
+    @Test(expected = AuthorizationException.class)
+    public void checkPermissionsDenied() throws Exception {
+        RestfulSecurityContext.setUserDetails(userDetails);
+        CheckUtils.check(annotation("write", RequiresPermissions.class));
+    }
+
+    @Test
+    public void json() throws Exception {
+        final String json = new ObjectMapper().writeValueAsString(userDetails);
+        final JsonNode node = new ObjectMapper().readTree(json);
+        assertEquals(new HashSet<>(Arrays.asList("admin", "user")), names(node.get("roleNames")));
+        assertEquals(Collections.singleton("user:read"), names(node.get("permissionNames")));
+        assertFalse(node.has("authorityIndex"));
+    }
+
+    private static Set<String> names(JsonNode array) {
+        final Set<String> names = new HashSet<>();
+        array.forEach(node -> names.add(node.asText()));
+        return names;
+    }
+
+    private static <A extends java.lang.annotation.Annotation> A annotation(String method, Class<A> type) throws Exception {
+        return Annotated.class.getDeclaredMethod(method).getAnnotation(type);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private static class Annotated {
+
+        @RequiresRoles("admin")
+        void admin() {
+        }
+
+        @RequiresRoles(value = {"admin", "user"}, logical = Logical.AND)
+        void adminAndUser() {
+        }
+
+        @RequiresRoles("root")
+        void root() {
+        }
+
+        @RequiresPermissions("user:read")
+        void read() {
+        }
+
+        @RequiresPermissions("user:write")
+        void write() {
+        }
+    }
+
+}